@@ -0,0 +1,39 @@
+// Compares platform and virtual request threads on the same service and memory budget.
+//
+//   k6 run -e BASE_URL=http://localhost:8090 -e TOKEN=<access token> -e VUS=400 load-tests/virtual-threads.js
+//
+// Run it once with VIRTUAL_THREADS_ENABLED=false and once with true (see load-tests/README.md).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8090';
+const TOKEN = __ENV.TOKEN;
+const VUS = parseInt(__ENV.VUS || '400');
+
+export const options = {
+  scenarios: {
+    ramp: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: VUS },
+        { duration: '2m', target: VUS },
+        { duration: '15s', target: 0 },
+      ],
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+const params = { headers: { Authorization: `Bearer ${TOKEN}` } };
+
+export default function () {
+  // Blocks on a JDBC round-trip: the case virtual threads are meant for
+  const users = http.get(`${BASE_URL}/api/v1/auth/users?limit=50`, params);
+  check(users, { 'users 200': (r) => r.status === 200 });
+
+  const validate = http.post(`${BASE_URL}/api/v1/auth/validate`, null, params);
+  check(validate, { 'validate 200': (r) => r.status === 200 });
+}
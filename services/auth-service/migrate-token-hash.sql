@@ -0,0 +1,37 @@
+-- Migrate the token table from full JWT strings to SHA-256 digests
+-- Run this script on auth_db once, after deploying the version that adds token_hash/jti/expires_at
+-- (ddl-auto: update creates the new columns; this script fills them for existing rows).
+
+-- Tokens issued before the jti claim cannot be revoked individually and are refused by the
+-- filter, so existing rows only need their digest; they are marked expired/revoked as well.
+-- Rows are processed in chunks so no long lock is held on a large table.
+DO $$
+DECLARE
+    updated INTEGER;
+BEGIN
+    LOOP
+        UPDATE token
+        SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex'),
+            expired = true,
+            revoked = true
+        WHERE id IN (
+            SELECT id FROM token
+            WHERE token_hash IS NULL AND token IS NOT NULL
+            LIMIT 10000
+        );
+        GET DIAGNOSTICS updated = ROW_COUNT;
+        EXIT WHEN updated = 0;
+        COMMIT;
+    END LOOP;
+END $$;
+
+-- Unique index used by findByTokenHash (Hibernate creates the same index on fresh schemas)
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_token_token_hash ON token (token_hash);
+
+-- The full JWT is no longer read or written
+ALTER TABLE token DROP COLUMN IF EXISTS token;
+
+-- Verify the migration
+SELECT COUNT(*) AS rows_without_hash
+FROM token
+WHERE token_hash IS NULL;
@@ -1,23 +1,32 @@
 package com.example.auth_service.auth;
 
+import com.example.auth_service.config.PasswordHashingBusyException;
+import com.example.auth_service.config.ServiceCredentials;
 import com.example.auth_service.entity.Role;
 import com.example.auth_service.entity.User;
+import com.example.auth_service.token.InvalidRefreshTokenException;
 import com.example.auth_service.auth.AuthValidationResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/auth")
 @RequiredArgsConstructor
 public class AuthenticationController {
     private final AuthenticationService service;
+    private final ServiceCredentials serviceCredentials;
 
     @PostMapping("/register")
     public ResponseEntity<AuthenticationResponse> register(
@@ -26,6 +35,13 @@ public class AuthenticationController {
         return ResponseEntity.ok(service.register(request));
     }
 
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Map<String, String>> passwordHashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", e.getMessage()));
+    }
+
     @PostMapping("/authenticate")
     public ResponseEntity<AuthenticationResponse> authenticate(
             @RequestBody AuthenticationRequest request
@@ -33,6 +49,19 @@ public class AuthenticationController {
         return ResponseEntity.ok(service.authenticate(request));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthenticationResponse> refresh(
+            @RequestBody RefreshRequest request
+    ){
+        return ResponseEntity.ok(service.refresh(request));
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<Map<String, String>> invalidRefreshToken(InvalidRefreshTokenException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("message", e.getMessage()));
+    }
+
     @GetMapping("/me")
     public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal User user) {
         return ResponseEntity.ok(user);
@@ -49,16 +78,51 @@ public class AuthenticationController {
         return ResponseEntity.ok(service.validateToken(token));
     }
 
-    @PostMapping("/logout")
-    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String token) {
-        service.logout(token);
-        return ResponseEntity.ok().build();
+    // Revoked token ids (jti -> expiry in epoch millis) for services that verify tokens locally;
+    // only for callers presenting the service token
+    @GetMapping("/revocations")
+    public ResponseEntity<Map<String, Long>> getRevocations(
+            @RequestHeader(value = ServiceCredentials.HEADER, required = false) String serviceToken
+    ) {
+        if (!serviceCredentials.matches(serviceToken)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(service.getRevocations());
     }
 
+    // Without a limit every user is returned; with one, a keyset page after the given id
+    // and the cursor of the next page in X-Next-Cursor when more may follow
     @GetMapping("/users")
     @PreAuthorize("hasAuthority('CHAT_READ') or hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        return ResponseEntity.ok(service.getAllUsers());
+    public ResponseEntity<List<UserResponse>> getAllUsers(
+            @RequestParam(value = "after", required = false) Integer after,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        if (limit == null) {
+            return ResponseEntity.ok(service.getAllUsers());
+        }
+        List<UserResponse> page = service.getUsersPage(after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!page.isEmpty() && page.size() == service.pageSize(limit)) {
+            response.header("X-Next-Cursor", page.get(page.size() - 1).getId());
+        }
+        return response.body(page);
+    }
+
+    // Accept: application/x-ndjson streams one user per line straight from a database cursor
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('CHAT_READ') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(service::streamUsers);
+    }
+
+    // Resolve several users in one round-trip; unknown ids are omitted from the result
+    @PostMapping("/users/batch")
+    @PreAuthorize("hasAuthority('CHAT_READ') or hasRole('ADMIN')")
+    public ResponseEntity<List<UserResponse>> getUsersByIds(@RequestBody UserBatchRequest request) {
+        return ResponseEntity.ok(service.getUsersByIds(request.getIds()));
     }
 
     @GetMapping("/users/{id}")
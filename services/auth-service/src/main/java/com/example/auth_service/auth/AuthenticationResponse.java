@@ -12,6 +12,11 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class AuthenticationResponse {
 
+    // Short-lived access token (JWT)
     private String token;
+    // Opaque, single-use token for POST /api/v1/auth/refresh
+    private String refreshToken;
+    // Access token lifetime in seconds
+    private long expiresIn;
     private UserResponse user;
 }
@@ -1,20 +1,40 @@
 package com.example.auth_service.auth;
 
 import com.example.auth_service.config.JwtService;
+import com.example.auth_service.config.ParsedToken;
+import com.example.auth_service.config.RoleAuthorities;
 import com.example.auth_service.entity.Role;
 import com.example.auth_service.entity.User;
 import com.example.auth_service.repository.UserRepository;
-import com.example.auth_service.token.Token;
+import com.example.auth_service.repository.UserSummary;
+import com.example.auth_service.token.InvalidRefreshTokenException;
+import com.example.auth_service.token.RefreshTokenService;
+import com.example.auth_service.token.TokenDigest;
 import com.example.auth_service.token.TokenRepository;
-import com.example.auth_service.token.TokenType;
+import com.example.auth_service.token.TokenRevocationCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import com.example.auth_service.auth.UserResponse;
 
 @Service
@@ -25,6 +45,19 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationCache revocationCache;
+    private final UserCache userCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenValidationCache validationCache;
+    private final RoleAuthorities roleAuthorities;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${auth.users.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${auth.users.page.max-size:500}")
+    private int maxPageSize;
 
     public AuthenticationResponse register(RegisterRequest request) {
         var user = User.builder()
@@ -35,21 +68,11 @@ public class AuthenticationService {
                 .role(request.getRole() != null ? request.getRole() : Role.AGENT)
                 .build();
         var savedUser = repository.save(user);
-        var jwtToken = jwtService.generateToken(user);
-        saveUserToken(savedUser, jwtToken);
-        
-        UserResponse userResponse = UserResponse.builder()
-                .id(String.valueOf(savedUser.getId()))
-                .email(savedUser.getEmail())
-                .firstName(savedUser.getFirstName())
-                .lastName(savedUser.getLastName())
-                .role(savedUser.getRole())
-                .build();
-                
-        return AuthenticationResponse.builder()
-                .token(jwtToken)
-                .user(userResponse)
-                .build();
+        return tokenResponse(savedUser, refreshTokenService.issue(savedUser));
+    }
+
+    public Map<String, Long> getRevocations() {
+        return revocationCache.snapshot();
     }
 
     public long getUsersCount() {
@@ -57,18 +80,32 @@ public class AuthenticationService {
     }
 
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
-        authenticationManager.authenticate(
+        // BCrypt (and a rehash if the configured cost changed) runs on the bounded hashing pool
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getEmail(),
                         request.getPassword()
                 )
         );
-        var user = repository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        var jwtToken = jwtService.generateToken(user);
+        var user = (User) authentication.getPrincipal();
         revokeAllUserTokens(user);
-        saveUserToken(user, jwtToken);
-        
+        return tokenResponse(user, refreshTokenService.issue(user));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token. A refresh
+     * token can be used once; reusing it revokes every token of its family.
+     */
+    public AuthenticationResponse refresh(RefreshRequest request) {
+        if (request == null || request.getRefreshToken() == null || request.getRefreshToken().isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token missing");
+        }
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        return tokenResponse(rotation.user(), rotation.refreshToken());
+    }
+
+    // Access tokens are stateless: signed and returned, never stored
+    private AuthenticationResponse tokenResponse(User user, String refreshToken) {
         UserResponse userResponse = UserResponse.builder()
                 .id(String.valueOf(user.getId()))
                 .email(user.getEmail())
@@ -76,9 +113,11 @@ public class AuthenticationService {
                 .lastName(user.getLastName())
                 .role(user.getRole())
                 .build();
-                
+
         return AuthenticationResponse.builder()
-                .token(jwtToken)
+                .token(jwtService.generateToken(user))
+                .refreshToken(refreshToken)
+                .expiresIn(jwtService.getAccessTokenTtlMillis() / 1000)
                 .user(userResponse)
                 .build();
     }
@@ -92,8 +131,18 @@ public class AuthenticationService {
                         .build();
             }
 
-            String jwtToken = token.substring(7);
-            String userEmail = jwtService.extractUsername(jwtToken);
+            String jwt = token.substring(7);
+            String digest = TokenDigest.sha256(jwt);
+            TokenValidationCache.CachedValidation cached = validationCache.get(digest);
+            if (cached != null) {
+                // Only the in-memory denylist is consulted on a hit
+                return revocationCache.isRevoked(cached.jti()) ? revokedResponse() : cached.response();
+            }
+            // Taken before the user is loaded, so an invalidation during the load is not missed
+            long cacheStamp = validationCache.stamp();
+
+            ParsedToken parsedToken = jwtService.parseToken(jwt);
+            String userEmail = parsedToken.username();
             
             if (userEmail == null) {
                 return AuthValidationResponse.builder()
@@ -111,20 +160,26 @@ public class AuthenticationService {
                         .build();
             }
 
-            if (!jwtService.isTokenValid(jwtToken, user)) {
+            if (!jwtService.isTokenValid(parsedToken, user)) {
                 return AuthValidationResponse.builder()
                         .valid(false)
                         .message("Token expiré ou invalide")
                         .build();
             }
 
-            return AuthValidationResponse.builder()
+            if (parsedToken.id() == null || revocationCache.isRevoked(parsedToken.id())) {
+                return revokedResponse();
+            }
+
+            AuthValidationResponse response = AuthValidationResponse.builder()
                     .valid(true)
                     .message("Token valide")
                     .role(user.getRole().name())
                     .userId((long) user.getId())
                     .email(user.getEmail())
                     .build();
+            validationCache.put(digest, response, parsedToken.id(), parsedToken.expiration().toInstant(), cacheStamp);
+            return response;
 
         } catch (Exception e) {
             return AuthValidationResponse.builder()
@@ -134,54 +189,57 @@ public class AuthenticationService {
         }
     }
 
-    public void logout(String token) {
-        try {
-            if (token != null && token.startsWith("Bearer ")) {
-                String jwtToken = token.substring(7);
-                String userEmail = jwtService.extractUsername(jwtToken);
-                
-                if (userEmail != null) {
-                    User user = repository.findByEmail(userEmail).orElse(null);
-                    if (user != null) {
-                        revokeAllUserTokens(user);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            // Log error but don't throw to avoid breaking logout flow
-            System.err.println("Error during logout: " + e.getMessage());
-        }
+    private AuthValidationResponse revokedResponse() {
+        return AuthValidationResponse.builder()
+                .valid(false)
+                .message("Token révoqué")
+                .build();
     }
 
     private void revokeAllUserTokens(User user) {
-        var validUserTokens = tokenRepository.findAllValidTokensByUser(user.getId());
-        if (validUserTokens.isEmpty())
-            return;
-        validUserTokens.forEach(t -> {
-            t.setExpired(true);
-            t.setRevoked(true);
-        });
-        tokenRepository.saveAll(validUserTokens);
-
-    }
-
-    private void saveUserToken(User user, String jwtToken) {
-        var token = Token.builder()
-                .user(user)
-                .token(jwtToken)
-                .tokenType(TokenType.BEARER)
-                .revoked(false)
-                .expired(false)
-                .build();
-        tokenRepository.save(token);
+        validationCache.invalidateUser(user.getId());
+        // Stored tokens are refresh tokens, checked against the table on use; access tokens
+        // are denied by jti when they are logged out
+        tokenRepository.revokeAllValidTokensByUser(user.getId());
     }
 
     public List<UserResponse> getAllUsers() {
-        return repository.findAll().stream()
+        return repository.findAllByOrderByIdAsc().stream()
                 .map(this::mapToUserResponse)
                 .toList();
     }
 
+    /**
+     * Keyset page of users ordered by id, starting after the given id (exclusive).
+     */
+    public List<UserResponse> getUsersPage(Integer afterId, int limit) {
+        return repository.findByIdGreaterThanOrderByIdAsc(afterId != null ? afterId : 0, Limit.of(pageSize(limit))).stream()
+                .map(this::mapToUserResponse)
+                .toList();
+    }
+
+    /** Requested page size clamped to [1, auth.users.page.max-size]. */
+    public int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    /**
+     * Writes every user as one JSON object per line while reading them from a database
+     * cursor, so memory stays flat however many users there are.
+     */
+    @Transactional(readOnly = true)
+    public void streamUsers(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(UserResponse.class);
+        try (Stream<UserSummary> users = repository.streamAllByOrderByIdAsc()) {
+            Iterator<UserSummary> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(mapToUserResponse(iterator.next())));
+                out.write('\n');
+            }
+            out.flush();
+        }
+    }
+
     public UserResponse getUserById(String id) {
         try {
             int userId = Integer.parseInt(id);
@@ -193,6 +251,29 @@ public class AuthenticationService {
         }
     }
 
+    /**
+     * Resolves many users in one query. Unknown ids are left out of the result.
+     */
+    public List<UserResponse> getUsersByIds(Set<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " ids per request");
+        }
+        Set<Integer> userIds = new HashSet<>();
+        for (String id : ids) {
+            try {
+                userIds.add(Integer.parseInt(id));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid user ID format: " + id);
+            }
+        }
+        return repository.findByIdIn(userIds).stream()
+                .map(this::mapToUserResponse)
+                .toList();
+    }
+
     public List<UserResponse> getUsersByRole(String role) {
         try {
             Role userRole = Role.valueOf(role.toUpperCase());
@@ -207,11 +288,7 @@ public class AuthenticationService {
     public List<String> getAuthoritiesForRole(String role) {
         try {
             Role userRole = Role.valueOf(role.toUpperCase());
-            // Build a temporary user with this role to compute authorities consistently
-            User user = User.builder().role(userRole).build();
-            return user.getAuthorities().stream()
-                    .map(a -> a.getAuthority())
-                    .toList();
+            return roleAuthorities.namesOf(userRole);
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid role: " + role);
         }
@@ -225,6 +302,8 @@ public class AuthenticationService {
                     .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
             user.setRole(newRole);
             User saved = repository.save(user);
+            userCache.removeUserFromCache(saved.getUsername());
+            validationCache.invalidateUser(saved.getId());
             return mapToUserResponse(saved);
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("Invalid user ID format: " + id);
@@ -233,6 +312,16 @@ public class AuthenticationService {
         }
     }
 
+    private UserResponse mapToUserResponse(UserSummary user) {
+        return UserResponse.builder()
+                .id(String.valueOf(user.getId()))
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .build();
+    }
+
     private UserResponse mapToUserResponse(User user) {
         return UserResponse.builder()
                 .id(String.valueOf(user.getId()))
@@ -0,0 +1,15 @@
+package com.example.auth_service.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshRequest {
+
+    private String refreshToken;
+}
@@ -0,0 +1,149 @@
+package com.example.auth_service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Successful /validate results, keyed by the SHA-256 digest of the token.
+ * <p>
+ * An entry never outlives the token it describes, nor the configured TTL; past max-size the
+ * least recently used entries are evicted. Entries of a user are dropped when the user logs
+ * out, has their tokens revoked or changes role, through an index of the digests of each user.
+ * Revocation of a single token is still checked on every call, against the in-memory denylist.
+ */
+@Component
+public class TokenValidationCache {
+
+    public record CachedValidation(AuthValidationResponse response, String jti) {
+    }
+
+    private record Entry(AuthValidationResponse response, String jti, Integer userId, long expiresAt) {
+    }
+
+    private final Cache<String, Entry> entries;
+    // Digests cached per user; kept in step with the cache by its removal listener
+    private final Map<Integer, Set<String>> digestsByUser = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, so a put racing with one can tell and drop its entry
+    private final AtomicLong invalidations = new AtomicLong();
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    public TokenValidationCache(MeterRegistry meterRegistry,
+                                @Value("${auth.validation-cache.ttl:5m}") Duration ttl,
+                                @Value("${auth.validation-cache.max-size:100000}") int maxSize) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String digest, Entry entry) ->
+                        Duration.ofMillis(Math.max(0, entry.expiresAt() - System.currentTimeMillis()))))
+                .removalListener((String digest, Entry entry, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED && entry != null && entry.userId() != null) {
+                        unindex(entry.userId(), digest);
+                    }
+                })
+                .build();
+        this.hits = Counter.builder("auth.validation.cache.hits")
+                .description("Token validations answered from the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("auth.validation.cache.misses")
+                .description("Token validations that had to parse the token and load the user")
+                .register(meterRegistry);
+        Gauge.builder("auth.validation.cache.hit.ratio", this, TokenValidationCache::hitRatio)
+                .description("Share of token validations answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("auth.validation.cache.size", entries, Cache::estimatedSize)
+                .description("Validation results currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached result for the token digest, or null when absent or expired. The jti is returned
+     * with it so the caller can check the denylist.
+     */
+    public CachedValidation get(String digest) {
+        Entry entry = entries.getIfPresent(digest);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new CachedValidation(entry.response(), entry.jti());
+    }
+
+    /**
+     * To be read before loading the user a result is built from, and passed back to
+     * {@link #put}: a user invalidated in between (role change, logout) is then not cached
+     * with the state loaded before the change.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public void put(String digest, AuthValidationResponse response, String jti, Instant tokenExpiresAt, long seen) {
+        long expiresAt = Math.min(tokenExpiresAt.toEpochMilli(), System.currentTimeMillis() + ttlMillis);
+        Integer userId = response.getUserId() != null ? response.getUserId().intValue() : null;
+        if (invalidations.get() != seen) {
+            return;
+        }
+        entries.put(digest, new Entry(response, jti, userId, expiresAt));
+        if (userId == null) {
+            return;
+        }
+        // Cached before indexed: a removal listener that runs in between finds the entry and keeps it
+        digestsByUser.compute(userId, (id, digests) -> {
+            Set<String> indexed = digests != null ? digests : ConcurrentHashMap.newKeySet();
+            indexed.add(digest);
+            return indexed;
+        });
+        if (invalidations.get() != seen) {
+            // An invalidation since the stamp may have taken the index before this digest was added
+            entries.invalidate(digest);
+        }
+    }
+
+    public void invalidateUser(Integer userId) {
+        if (userId != null) {
+            invalidations.incrementAndGet();
+            Set<String> digests = digestsByUser.remove(userId);
+            if (digests != null) {
+                entries.invalidateAll(digests);
+            }
+        }
+    }
+
+    // Expired entries are otherwise removed lazily, as the cache is used
+    @Scheduled(fixedDelayString = "${auth.validation-cache.purge-interval:60000}")
+    public void purgeExpired() {
+        entries.cleanUp();
+    }
+
+    private void unindex(Integer userId, String digest) {
+        digestsByUser.computeIfPresent(userId, (id, digests) -> {
+            if (!entries.asMap().containsKey(digest)) {
+                digests.remove(digest);
+            }
+            return digests.isEmpty() ? null : digests;
+        });
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+}
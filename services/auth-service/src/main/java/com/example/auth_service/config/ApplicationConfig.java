@@ -1,7 +1,10 @@
 package com.example.auth_service.config;
 
+import com.example.auth_service.entity.User;
 import com.example.auth_service.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,15 +12,19 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 
 @Configuration
 @RequiredArgsConstructor
+@Slf4j
 public class ApplicationConfig {
 
     private final UserRepository repository;
@@ -29,10 +36,41 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public RoleAuthorities roleAuthorities(RoleAuthoritiesProperties properties) {
+        if (!properties.getRoleAuthorities().isEmpty()) {
+            log.info("Loaded authorities from configuration for roles {}", properties.getRoleAuthorities().keySet());
+        }
+        return new RoleAuthorities(properties.getRoleAuthorities());
+    }
+
+    @Bean
+    public UserCache userCache(@Value("${auth.user-cache.ttl:5m}") Duration ttl,
+                               @Value("${auth.user-cache.maximum-size:10000}") long maximumSize) {
+        return new ExpiringUserCache(ttl, maximumSize);
+    }
+
+    /**
+     * Stores the rehashed password when a login reveals a hash made with another BCrypt cost.
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService(UserCache userCache) {
+        return (userDetails, newPassword) -> repository.findByEmail(userDetails.getUsername())
+                .map(user -> {
+                    user.setPassword(newPassword);
+                    User saved = repository.save(user);
+                    userCache.removeUserFromCache(saved.getUsername());
+                    return (UserDetails) saved;
+                })
+                .orElse(userDetails);
+    }
+
+    @Bean
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder,
+                                                         UserDetailsPasswordService userDetailsPasswordService) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
@@ -42,8 +80,9 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.bcrypt-strength:10}") int strength,
+                                           PasswordHashingExecutor passwordHashing) {
+        return new PooledPasswordEncoder(new AdaptiveBCryptPasswordEncoder(strength), passwordHashing);
     }
 
 
@@ -0,0 +1,40 @@
+package com.example.auth_service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of loaded users so that authenticated requests do not query the
+ * users table each time. Entries are evicted explicitly when a user changes, and the
+ * least recently used ones go first once the cache is full.
+ */
+public class ExpiringUserCache implements UserCache {
+
+    private final Cache<String, UserDetails> users;
+
+    public ExpiringUserCache(Duration ttl, long maximumSize) {
+        this.users = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return users.getIfPresent(username);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), user);
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        users.invalidate(username);
+    }
+}
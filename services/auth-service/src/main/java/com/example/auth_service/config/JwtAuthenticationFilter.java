@@ -1,6 +1,8 @@
 package com.example.auth_service.config;
 
-import com.example.auth_service.token.TokenRepository;
+import com.example.auth_service.entity.User;
+import com.example.auth_service.token.TokenRevocationCache;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.CachingUserDetailsService;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
@@ -25,7 +28,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
-    private final TokenRepository tokenRepository;
+    private final UserCache userCache;
+    private final TokenRevocationCache revocationCache;
+    private final RoleAuthorities roleAuthorities;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -37,10 +42,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         boolean isAuthPublic = 
                 requestURI.equals("/api/v1/auth/register") ||
                 requestURI.equals("/api/v1/auth/authenticate") ||
+                requestURI.equals("/api/v1/auth/refresh") ||
                 requestURI.equals("/api/v1/auth/validate") ||
+                requestURI.equals("/api/v1/auth/revocations") ||
                 requestURI.equals("/api/v1/auth/logout");
         if (isAuthPublic ||
-            requestURI.startsWith("/actuator/") || 
+            requestURI.startsWith("/actuator/health") ||
+            requestURI.equals("/actuator/info") ||
+            requestURI.equals("/.well-known/jwks.json") ||
             requestURI.equals("/health") || 
             requestURI.equals("/info")) {
             filterChain.doFilter(request, response);
@@ -49,23 +58,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final ParsedToken parsedToken;
         final String userEmail;
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        try {
+            // Signature and expiry are verified here, once per request
+            parsedToken = jwtService.parseToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        userEmail = parsedToken.username();
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            var isTokenValid = tokenRepository.findByToken(jwt)
-                    .map(t -> !t.isExpired() && !t.isRevoked() )
-                    .orElse(false);
-            if (jwtService.isTokenValid(jwt, userDetails) && isTokenValid) {
+            UserDetails userDetails = userCache.getUserFromCache(userEmail);
+            if (userDetails == null) {
+                userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                userCache.putUserInCache(userDetails);
+            }
+            // Tokens issued before the jti claim existed cannot be revoked individually and are refused
+            var isTokenValid = parsedToken.id() != null && !revocationCache.isRevoked(parsedToken.id());
+            if (jwtService.isTokenValid(parsedToken, userDetails) && isTokenValid) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
-                        userDetails.getAuthorities()
+                        userDetails instanceof User user
+                                ? roleAuthorities.of(user.getRole())
+                                : userDetails.getAuthorities()
                 );
                 authToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
@@ -1,10 +1,15 @@
 package com.example.auth_service.config;
 
+import com.example.auth_service.jwk.JwtKey;
+import com.example.auth_service.jwk.JwtKeySource;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -12,12 +17,48 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private final JwtKeySource keySource;
+    private final RoleAuthorities roleAuthorities;
+    private final long accessTokenTtlMillis;
+    // Built once: the parser is immutable and safe to share across request threads
+    private final JwtParser jwtParser;
+
+    public JwtService(JwtKeySource keySource,
+                      RoleAuthorities roleAuthorities,
+                      @Value("${jwt.expiration:900000}") long accessTokenTtlMillis) {
+        this.keySource = keySource;
+        this.roleAuthorities = roleAuthorities;
+        this.accessTokenTtlMillis = accessTokenTtlMillis;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return keySource.key(header.getKeyId())
+                                .map(JwtKey::publicKey)
+                                .orElseThrow(() -> new JwtException("Unknown signing key: " + header.getKeyId()));
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verifies the signature and expiry of the token once and returns its claims.
+     * Callers should reuse the result instead of calling the extract* methods repeatedly.
+     */
+    public ParsedToken parseToken(String token) {
+        return new ParsedToken(token, extractAllClaims(token));
+    }
+
+    /** Lifetime of an access token in milliseconds. */
+    public long getAccessTokenTtlMillis() {
+        return accessTokenTtlMillis;
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -34,15 +75,14 @@ public class JwtService {
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        // Add authorities to the token
-        claims.put("authorities", userDetails.getAuthorities().stream()
-            .map(Object::toString)
-            .toList());
-        
-        // Add user ID if it's available (for User entity)
-        if (userDetails instanceof com.example.auth_service.entity.User) {
-            com.example.auth_service.entity.User user = (com.example.auth_service.entity.User) userDetails;
+        // Add user ID and authorities; for a User the role's precomputed names are reused
+        if (userDetails instanceof com.example.auth_service.entity.User user) {
+            claims.put("authorities", roleAuthorities.namesOf(user.getRole()));
             claims.put("userId", user.getId());
+        } else {
+            claims.put("authorities", userDetails.getAuthorities().stream()
+                .map(Object::toString)
+                .toList());
         }
         
         return generateToken(claims, userDetails);
@@ -50,40 +90,32 @@ public class JwtService {
 
     public String generateToken(Map<String, Object> extraClaims,
                                 UserDetails userDetails) {
+        JwtKey key = keySource.signingKey();
+        long now = System.currentTimeMillis();
         return Jwts
                 .builder()
+                .setHeaderParam(JwsHeader.KEY_ID, key.kid())
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 24))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + accessTokenTtlMillis))
+                .signWith(key.privateKey(), SignatureAlgorithm.RS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isTokenValid(parseToken(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(ParsedToken token, UserDetails userDetails) {
+        final String username = token.username();
+        return (username.equals(userDetails.getUsername())) && !token.isExpired();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
-
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
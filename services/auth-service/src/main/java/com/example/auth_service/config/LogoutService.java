@@ -1,6 +1,9 @@
 package com.example.auth_service.config;
 
+import com.example.auth_service.auth.TokenValidationCache;
 import com.example.auth_service.token.TokenRepository;
+import com.example.auth_service.token.TokenRevocationCache;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -12,7 +15,10 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class LogoutService implements LogoutHandler{
 
+    private final JwtService jwtService;
     private final TokenRepository tokenRepository;
+    private final TokenRevocationCache revocationCache;
+    private final TokenValidationCache validationCache;
 
 
     @Override
@@ -28,12 +34,17 @@ public class LogoutService implements LogoutHandler{
             return;
         }
         jwt = authHeader.substring(7);
-        var storedToken = tokenRepository.findByToken(jwt)
-                .orElse(null);
-        if (storedToken != null) {
-            storedToken.setExpired(true);
-            storedToken.setRevoked(true);
-            tokenRepository.save(storedToken);
+        final ParsedToken parsedToken;
+        try {
+            parsedToken = jwtService.parseToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Expired or forged: nothing left to revoke
+            return;
+        }
+        revocationCache.revokeAccessToken(parsedToken.id(), parsedToken.expiration().toInstant());
+        if (parsedToken.userId() != null) {
+            validationCache.invalidateUser(parsedToken.userId());
+            tokenRepository.revokeAllValidTokensByUser(parsedToken.userId());
         }
     }
 }
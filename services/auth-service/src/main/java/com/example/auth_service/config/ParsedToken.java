@@ -0,0 +1,41 @@
+package com.example.auth_service.config;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Claims of a JWT whose signature has already been verified by {@link JwtService#parseToken(String)}.
+ * Produced once per request so the username, expiry, userId and authorities are read
+ * without parsing the token again.
+ */
+public record ParsedToken(String token, Claims claims) {
+
+    public String id() {
+        return claims.getId();
+    }
+
+    public String username() {
+        return claims.getSubject();
+    }
+
+    public Integer userId() {
+        return claims.get("userId", Integer.class);
+    }
+
+    public Date expiration() {
+        return claims.getExpiration();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> authorities() {
+        Object authorities = claims.get("authorities");
+        return authorities instanceof List<?> list ? (List<String>) list : List.of();
+    }
+
+    public boolean isExpired() {
+        Date expiration = expiration();
+        return expiration != null && expiration.before(new Date());
+    }
+}
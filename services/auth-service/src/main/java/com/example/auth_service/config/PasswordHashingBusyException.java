@@ -0,0 +1,11 @@
+package com.example.auth_service.config;
+
+/**
+ * Thrown when the password hashing executor is saturated; mapped to 429 Too Many Requests.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.auth_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool for BCrypt work (login, registration, rehash).
+ * <p>
+ * BCrypt is deliberately CPU-bound; running it on the request threads lets a login burst
+ * occupy every core and starve cheap endpoints such as /validate. Here it runs on a fixed
+ * number of threads behind a bounded queue, and callers are turned away with
+ * {@link PasswordHashingBusyException} (429) when the queue is full or when the work already
+ * queued would outlast their timeout. The pool keeps platform threads even when virtual
+ * threads are enabled, since the bound is what protects the CPU.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final Duration timeout;
+    private final Timer hashTimer;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(
+            @Value("${auth.password.hash-threads:0}") int threads,
+            @Value("${auth.password.hash-queue-capacity:200}") int queueCapacity,
+            @Value("${auth.password.hash-timeout:10s}") Duration timeout,
+            MeterRegistry meterRegistry) {
+        // Leave half of the cores to the request threads by default
+        this.poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeout = timeout;
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent verifying or encoding a password")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("auth.password.hash.wait")
+                .description("Time a password hashing task waited in the queue")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+                .description("Password hashing requests refused because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+        log.info("Password hashing executor started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Runs the task on the hashing pool and waits for its result. Runtime exceptions thrown by
+     * the task (e.g. BadCredentialsException) are rethrown unchanged.
+     */
+    public <T> T execute(Callable<T> task) {
+        // A timed-out hash keeps its thread until BCrypt finishes (it cannot be interrupted),
+        // so refuse up front what would only time out in the queue
+        if (expectedWaitNanos() >= timeout.toNanos()) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Too many concurrent logins, retry shortly");
+        }
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Too many concurrent logins, retry shortly");
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (TimeoutException e) {
+            // Drops the task if still queued; a running hash cannot be interrupted
+            future.cancel(false);
+            rejected.increment();
+            throw new PasswordHashingBusyException("Password hashing timed out, retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    // Tasks ahead of a new one, shared by the threads, at the mean hashing time seen so far
+    private long expectedWaitNanos() {
+        int ahead = executor.getQueue().size() + executor.getActiveCount() - poolSize + 1;
+        if (ahead <= 0) {
+            return 0;
+        }
+        double meanNanos = hashTimer.mean(TimeUnit.NANOSECONDS);
+        return (long) Math.ceil((double) ahead / poolSize) * (long) meanNanos;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
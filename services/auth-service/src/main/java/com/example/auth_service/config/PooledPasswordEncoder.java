@@ -0,0 +1,37 @@
+package com.example.auth_service.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs the BCrypt work of another encoder on the {@link PasswordHashingExecutor}.
+ * <p>
+ * Only {@link #encode} and {@link #matches} go to the pool; the user lookup, the token
+ * issuing and the rehash save around them stay on the caller's thread, so a hashing thread
+ * never waits on the database.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public PooledPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Parses the stored hash only, no hashing involved
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
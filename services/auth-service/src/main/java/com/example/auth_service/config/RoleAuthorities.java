@@ -0,0 +1,62 @@
+package com.example.auth_service.config;
+
+import com.example.auth_service.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed, immutable authorities of each {@link Role}.
+ * <p>
+ * Built once from the defaults of each {@link Role} and the overrides of {@link RoleAuthoritiesProperties},
+ * and injected as a bean where authorities are needed; the lists are shared, so handing them
+ * out allocates nothing.
+ */
+public final class RoleAuthorities {
+
+    private record Table(Map<Role, List<GrantedAuthority>> authorities,
+                         Map<Role, List<String>> names) {
+    }
+
+    private final Table table;
+
+    /** Roles missing from the overrides keep their defaults. */
+    public RoleAuthorities(Map<Role, List<String>> overrides) {
+        this.table = build(overrides);
+    }
+
+    /** ROLE_&lt;role&gt; followed by the specific authorities of the role. */
+    public List<GrantedAuthority> of(Role role) {
+        return role == null ? List.of() : table.authorities().get(role);
+    }
+
+    public List<String> namesOf(Role role) {
+        return role == null ? List.of() : table.names().get(role);
+    }
+
+    private static Table build(Map<Role, List<String>> overrides) {
+        Map<Role, List<GrantedAuthority>> authorities = new EnumMap<>(Role.class);
+        Map<Role, List<String>> names = new EnumMap<>(Role.class);
+        for (Role role : Role.values()) {
+            List<String> override = overrides.get(role);
+            if (override == null) {
+                // Same lists as User.getAuthorities()
+                authorities.put(role, role.getAuthorities());
+                names.put(role, role.getAuthorityNames());
+                continue;
+            }
+            List<String> roleNames = new ArrayList<>();
+            roleNames.add("ROLE_" + role.name());
+            roleNames.addAll(override);
+            names.put(role, List.copyOf(roleNames));
+            authorities.put(role, roleNames.stream()
+                    .map(name -> (GrantedAuthority) new SimpleGrantedAuthority(name))
+                    .toList());
+        }
+        return new Table(authorities, names);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.auth_service.config;
+
+import com.example.auth_service.entity.Role;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional override of the authorities granted to each role, e.g.
+ * <pre>
+ * auth:
+ *   role-authorities:
+ *     AGENT: [FLIGHT_READ, STAFF_READ, CHAT_READ, CHAT_SEND]
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth")
+public class RoleAuthoritiesProperties {
+
+    private Map<Role, List<String>> roleAuthorities = new EnumMap<>(Role.class);
+}
@@ -0,0 +1,35 @@
+package com.example.auth_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Shared secret the other services present in {@value #HEADER} to read internal endpoints
+ * such as the revocation feed. Without a configured token those endpoints refuse everyone.
+ */
+@Component
+@Slf4j
+public class ServiceCredentials {
+
+    public static final String HEADER = "X-Service-Token";
+
+    private final byte[] token;
+
+    public ServiceCredentials(@Value("${auth.service-token:}") String token) {
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        if (token.isBlank()) {
+            log.warn("auth.service-token is not set, internal endpoints refuse every caller");
+        }
+    }
+
+    public boolean matches(String presented) {
+        if (token.length == 0 || presented == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
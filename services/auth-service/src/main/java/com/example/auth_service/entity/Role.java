@@ -1,7 +1,48 @@
 package com.example.auth_service.entity;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+
 public enum Role {
-    ADMIN,
-    SUPERVISEUR,
-    AGENT
+    ADMIN(
+            "FLIGHT_ADMIN", "FLIGHT_CREATE", "FLIGHT_UPDATE", "FLIGHT_READ",
+            "STAFF_ADMIN", "STAFF_CREATE", "STAFF_UPDATE", "STAFF_READ",
+            "EVALUATION_CREATE", "EVALUATION_UPDATE", "EVALUATION_READ",
+            "SCHEDULE_CREATE", "SCHEDULE_UPDATE", "SCHEDULE_READ",
+            "CHAT_ADMIN", "CHAT_CREATE", "CHAT_READ", "CHAT_SEND"),
+    SUPERVISEUR(
+            "FLIGHT_CREATE", "FLIGHT_UPDATE", "FLIGHT_READ",
+            "STAFF_CREATE", "STAFF_UPDATE", "STAFF_READ",
+            "EVALUATION_CREATE", "EVALUATION_UPDATE", "EVALUATION_READ",
+            "SCHEDULE_CREATE", "SCHEDULE_UPDATE", "SCHEDULE_READ",
+            "CHAT_CREATE", "CHAT_READ", "CHAT_SEND"),
+    AGENT(
+            "FLIGHT_READ", "STAFF_READ", "EVALUATION_READ", "SCHEDULE_READ",
+            "CHAT_READ", "CHAT_SEND");
+
+    // Built once per role: ROLE_<name> followed by the default authorities of the role.
+    // Configured overrides are applied by the RoleAuthorities bean.
+    private final List<String> authorityNames;
+    private final List<GrantedAuthority> authorities;
+
+    Role(String... defaultAuthorities) {
+        List<String> names = new ArrayList<>();
+        names.add("ROLE_" + name());
+        names.addAll(List.of(defaultAuthorities));
+        this.authorityNames = List.copyOf(names);
+        this.authorities = authorityNames.stream()
+                .map(name -> (GrantedAuthority) new SimpleGrantedAuthority(name))
+                .toList();
+    }
+
+    public List<String> getAuthorityNames() {
+        return authorityNames;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
 }
@@ -7,12 +7,10 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.ArrayList;
 
 @Entity
 @Getter
@@ -52,61 +50,8 @@ public class User implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-        
-        // Add the role-based authority
-        authorities.add(new SimpleGrantedAuthority("ROLE_" + role.name()));
-        
-        // Add specific authorities based on role
-        switch (role) {
-            case ADMIN:
-                authorities.add(new SimpleGrantedAuthority("FLIGHT_ADMIN"));
-                authorities.add(new SimpleGrantedAuthority("FLIGHT_CREATE"));
-                authorities.add(new SimpleGrantedAuthority("FLIGHT_UPDATE"));
-                authorities.add(new SimpleGrantedAuthority("FLIGHT_READ"));
-                authorities.add(new SimpleGrantedAuthority("STAFF_ADMIN"));
-                authorities.add(new SimpleGrantedAuthority("STAFF_CREATE"));
-                authorities.add(new SimpleGrantedAuthority("STAFF_UPDATE"));
-                authorities.add(new SimpleGrantedAuthority("STAFF_READ"));
-                authorities.add(new SimpleGrantedAuthority("EVALUATION_CREATE"));
-                authorities.add(new SimpleGrantedAuthority("EVALUATION_UPDATE"));
-                authorities.add(new SimpleGrantedAuthority("EVALUATION_READ"));
-                authorities.add(new SimpleGrantedAuthority("SCHEDULE_CREATE"));
-                authorities.add(new SimpleGrantedAuthority("SCHEDULE_UPDATE"));
-                authorities.add(new SimpleGrantedAuthority("SCHEDULE_READ"));
-                authorities.add(new SimpleGrantedAuthority("CHAT_ADMIN"));
-                authorities.add(new SimpleGrantedAuthority("CHAT_CREATE"));
-                authorities.add(new SimpleGrantedAuthority("CHAT_READ"));
-                authorities.add(new SimpleGrantedAuthority("CHAT_SEND"));
-                break;
-            case SUPERVISEUR:
-                authorities.add(new SimpleGrantedAuthority("FLIGHT_CREATE"));
-                authorities.add(new SimpleGrantedAuthority("FLIGHT_UPDATE"));
-                authorities.add(new SimpleGrantedAuthority("FLIGHT_READ"));
-                authorities.add(new SimpleGrantedAuthority("STAFF_CREATE"));
-                authorities.add(new SimpleGrantedAuthority("STAFF_UPDATE"));
-                authorities.add(new SimpleGrantedAuthority("STAFF_READ"));
-                authorities.add(new SimpleGrantedAuthority("EVALUATION_CREATE"));
-                authorities.add(new SimpleGrantedAuthority("EVALUATION_UPDATE"));
-                authorities.add(new SimpleGrantedAuthority("EVALUATION_READ"));
-                authorities.add(new SimpleGrantedAuthority("SCHEDULE_CREATE"));
-                authorities.add(new SimpleGrantedAuthority("SCHEDULE_UPDATE"));
-                authorities.add(new SimpleGrantedAuthority("SCHEDULE_READ"));
-                authorities.add(new SimpleGrantedAuthority("CHAT_CREATE"));
-                authorities.add(new SimpleGrantedAuthority("CHAT_READ"));
-                authorities.add(new SimpleGrantedAuthority("CHAT_SEND"));
-                break;
-            case AGENT:
-                authorities.add(new SimpleGrantedAuthority("FLIGHT_READ"));
-                authorities.add(new SimpleGrantedAuthority("STAFF_READ"));
-                authorities.add(new SimpleGrantedAuthority("EVALUATION_READ"));
-                authorities.add(new SimpleGrantedAuthority("SCHEDULE_READ"));
-                authorities.add(new SimpleGrantedAuthority("CHAT_READ"));
-                authorities.add(new SimpleGrantedAuthority("CHAT_SEND"));
-                break;
-        }
-        
-        return authorities;
+        // Precomputed per role; configured overrides are applied where the RoleAuthorities bean is used
+        return role == null ? List.of() : role.getAuthorities();
     }
 
     @Override
@@ -0,0 +1,11 @@
+package com.example.auth_service.jwk;
+
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+
+/**
+ * Decoded form of a {@link SigningKey}, kept in memory so keys are not parsed per token.
+ */
+public record JwtKey(String kid, PrivateKey privateKey, RSAPublicKey publicKey, Instant activatesAt) {
+}
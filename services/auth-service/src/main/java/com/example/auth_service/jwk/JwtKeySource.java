@@ -0,0 +1,15 @@
+package com.example.auth_service.jwk;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface JwtKeySource {
+
+    /** Key new tokens are signed with. */
+    JwtKey signingKey();
+
+    /** Any published key, including the next and the previous ones during a rotation. */
+    Optional<JwtKey> key(String kid);
+
+    List<JwtKey> publishedKeys();
+}
@@ -0,0 +1,42 @@
+package com.example.auth_service.jwk;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * RSA key pair used to sign tokens. Stored so that every auth-service instance, and a
+ * restarted one, signs and verifies with the same keys.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "signing_key")
+public class SigningKey {
+
+    // Published as the "kid" header of every token signed with this key
+    @Id
+    @Column(length = 36)
+    private String kid;
+
+    // PKCS#8, encrypted by SigningKeyCipher with a key kept outside the database
+    @Column(name = "private_key", columnDefinition = "TEXT", nullable = false)
+    private String privateKey;
+
+    // Base64 X.509 SubjectPublicKeyInfo
+    @Column(name = "public_key", columnDefinition = "TEXT", nullable = false)
+    private String publicKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Published in the JWKS from creation, used for signing only from this instant
+    @Column(name = "activates_at", nullable = false)
+    private Instant activatesAt;
+}
@@ -0,0 +1,82 @@
+package com.example.auth_service.jwk;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Encrypts the private signing keys before they are stored, so that a copy of the
+ * signing_key table (backup, replica, SQL access) is not enough to forge tokens.
+ * <p>
+ * AES-256-GCM with the key given in {@code auth.jwt.key-encryption-key} (base64, 32 bytes),
+ * which comes from the environment or a secret store and never from the database. The kid
+ * is bound as associated data, so an encrypted key cannot be moved to another row.
+ */
+@Component
+public class SigningKeyCipher {
+
+    // Marks encrypted values; keys stored before encryption are plain base64 PKCS#8
+    static final String PREFIX = "v1:";
+
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    public SigningKeyCipher(@Value("${auth.jwt.key-encryption-key:}") String encodedKey) {
+        if (encodedKey.isBlank()) {
+            throw new IllegalStateException("auth.jwt.key-encryption-key is not set; "
+                    + "provide a base64 AES-256 key (e.g. AUTH_JWT_KEY_ENCRYPTION_KEY) to protect the signing keys");
+        }
+        byte[] bytes = Base64.getDecoder().decode(encodedKey.trim());
+        if (bytes.length != 32) {
+            throw new IllegalStateException("auth.jwt.key-encryption-key must be 32 bytes, got " + bytes.length);
+        }
+        this.key = new SecretKeySpec(bytes, "AES");
+    }
+
+    public boolean isEncrypted(String stored) {
+        return stored.startsWith(PREFIX);
+    }
+
+    public String encrypt(String kid, byte[] privateKey) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] encrypted = cipher.doFinal(privateKey);
+            byte[] stored = ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array();
+            return PREFIX + Base64.getEncoder().encodeToString(stored);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt signing key " + kid, e);
+        }
+    }
+
+    public byte[] decrypt(String kid, String stored) {
+        if (!isEncrypted(stored)) {
+            return Base64.getDecoder().decode(stored);
+        }
+        try {
+            byte[] bytes = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_LENGTH));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            return cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not decrypt signing key " + kid
+                    + ", check auth.jwt.key-encryption-key", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.auth_service.jwk;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+    List<SigningKey> findAllByOrderByActivatesAtDesc();
+}
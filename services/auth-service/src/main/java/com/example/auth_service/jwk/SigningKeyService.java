@@ -0,0 +1,175 @@
+package com.example.auth_service.jwk;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Manages the RS256 signing keys with overlapping rotation.
+ * <p>
+ * A new key is published in the JWKS {@code prepublish} before it is used for signing, so
+ * verifiers that cached the JWKS already know it. A replaced key stays published for
+ * {@code retention} after its successor activates, so tokens it signed remain verifiable
+ * until they expire.
+ */
+@Service
+@Slf4j
+public class SigningKeyService implements JwtKeySource {
+
+    private final SigningKeyRepository repository;
+    private final SigningKeyCipher cipher;
+    private final Duration rotationInterval;
+    private final Duration prepublish;
+    private final Duration retention;
+
+    // Newest first; replaced as a whole on every refresh
+    private volatile List<JwtKey> keys = List.of();
+
+    public SigningKeyService(SigningKeyRepository repository,
+                             SigningKeyCipher cipher,
+                             @Value("${auth.jwt.key-rotation-interval:7d}") Duration rotationInterval,
+                             @Value("${auth.jwt.key-prepublish:15m}") Duration prepublish,
+                             @Value("${auth.jwt.key-retention:1d}") Duration retention) {
+        this.repository = repository;
+        this.cipher = cipher;
+        this.rotationInterval = rotationInterval;
+        this.prepublish = prepublish;
+        this.retention = retention;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (repository.count() == 0) {
+            // First start: the key is usable immediately since no verifier can hold tokens yet
+            Instant now = Instant.now();
+            repository.save(generate(now, now));
+        }
+        encryptStoredKeys();
+        refresh();
+    }
+
+    // Keys stored before private keys were encrypted
+    private void encryptStoredKeys() {
+        for (SigningKey key : repository.findAllByOrderByActivatesAtDesc()) {
+            if (!cipher.isEncrypted(key.getPrivateKey())) {
+                key.setPrivateKey(cipher.encrypt(key.getKid(), Base64.getDecoder().decode(key.getPrivateKey())));
+                repository.save(key);
+                log.info("Encrypted stored signing key {}", key.getKid());
+            }
+        }
+    }
+
+    @Override
+    public JwtKey signingKey() {
+        Instant now = Instant.now();
+        return keys.stream()
+                .filter(key -> !key.activatesAt().isAfter(now))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No active signing key"));
+    }
+
+    @Override
+    public Optional<JwtKey> key(String kid) {
+        return keys.stream()
+                .filter(key -> key.kid().equals(kid))
+                .findFirst();
+    }
+
+    @Override
+    public List<JwtKey> publishedKeys() {
+        return keys;
+    }
+
+    /**
+     * Creates the next key when the active one is due for rotation, removes keys that no
+     * unexpired token can reference, and reloads keys created by other instances.
+     */
+    @Scheduled(fixedDelayString = "${auth.jwt.key-check-interval:60000}")
+    public void rotate() {
+        Instant now = Instant.now();
+        List<SigningKey> stored = repository.findAllByOrderByActivatesAtDesc();
+        if (stored.isEmpty()) {
+            // The table was emptied under a running instance: start over as on a first start
+            SigningKey first = repository.save(generate(now, now));
+            log.warn("No signing key found, created {}", first.getKid());
+            refresh();
+            return;
+        }
+        SigningKey newest = stored.get(0);
+        if (!newest.getActivatesAt().isAfter(now)
+                && newest.getActivatesAt().plus(rotationInterval).minus(prepublish).isBefore(now)) {
+            SigningKey next = repository.save(generate(now, now.plus(prepublish)));
+            log.info("Published signing key {}, active from {}", next.getKid(), next.getActivatesAt());
+        }
+
+        // A key is no longer needed once its successor has been active for the retention period
+        Instant previousActivation = null;
+        for (SigningKey key : stored) {
+            if (previousActivation != null && previousActivation.plus(retention).isBefore(now)) {
+                repository.delete(key);
+                log.info("Removed retired signing key {}", key.getKid());
+            }
+            if (!key.getActivatesAt().isAfter(now)) {
+                previousActivation = key.getActivatesAt();
+            }
+        }
+        refresh();
+    }
+
+    private void refresh() {
+        List<JwtKey> loaded = new ArrayList<>();
+        for (SigningKey key : repository.findAllByOrderByActivatesAtDesc()) {
+            loaded.add(decode(key));
+        }
+        keys = List.copyOf(loaded);
+    }
+
+    private SigningKey generate(Instant createdAt, Instant activatesAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+            String kid = UUID.randomUUID().toString();
+            return SigningKey.builder()
+                    .kid(kid)
+                    .privateKey(cipher.encrypt(kid, keyPair.getPrivate().getEncoded()))
+                    .publicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()))
+                    .createdAt(createdAt)
+                    .activatesAt(activatesAt)
+                    .build();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate signing key", e);
+        }
+    }
+
+    private JwtKey decode(SigningKey key) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            return new JwtKey(
+                    key.getKid(),
+                    keyFactory.generatePrivate(new PKCS8EncodedKeySpec(cipher.decrypt(key.getKid(), key.getPrivateKey()))),
+                    (RSAPublicKey) keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(key.getPublicKey()))),
+                    key.getActivatesAt()
+            );
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not decode signing key " + key.getKid(), e);
+        }
+    }
+}
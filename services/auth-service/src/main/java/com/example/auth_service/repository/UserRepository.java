@@ -2,14 +2,35 @@ package com.example.auth_service.repository;
 
 import com.example.auth_service.entity.User;
 import com.example.auth_service.entity.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
 
     Optional<User> findByEmail(String email);
     
     List<User> findByRole(Role role);
+
+    // One "where id in (...)" query returning only the projected columns
+    List<UserSummary> findByIdIn(Collection<Integer> ids);
+
+    List<UserSummary> findAllByOrderByIdAsc();
+
+    // Keyset page: "where id > :afterId order by id limit n" stays cheap however deep the page
+    List<UserSummary> findByIdGreaterThanOrderByIdAsc(Integer afterId, Limit limit);
+
+    // Rows are fetched from the cursor in chunks; must be consumed inside a read-only transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<UserSummary> streamAllByOrderByIdAsc();
 }
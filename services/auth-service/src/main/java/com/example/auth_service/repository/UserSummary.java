@@ -0,0 +1,20 @@
+package com.example.auth_service.repository;
+
+import com.example.auth_service.entity.Role;
+
+/**
+ * Closed projection of the columns other services need to display a user. Selecting it
+ * reads only these columns and never touches the password or the tokens association.
+ */
+public interface UserSummary {
+
+    Integer getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    Role getRole();
+}
@@ -0,0 +1,11 @@
+package com.example.auth_service.token;
+
+/**
+ * Refresh token unknown, expired, already used or revoked; mapped to 401 Unauthorized.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
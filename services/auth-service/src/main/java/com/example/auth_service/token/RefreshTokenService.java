@@ -0,0 +1,112 @@
+package com.example.auth_service.token;
+
+import com.example.auth_service.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ * <p>
+ * Only the SHA-256 digest of a refresh token is stored. Each use marks the presented token
+ * as used and issues a new one in the same family; presenting a used token again means it
+ * was copied, so the whole family is revoked and the holder has to log in again. A token
+ * revoked without having been used (logout, a new login) is simply refused.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final TokenRepository tokenRepository;
+    private final Duration refreshTokenTtl;
+    private final Counter rotations;
+    private final Counter reuseDetected;
+
+    public RefreshTokenService(TokenRepository tokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.refresh-expiration:7d}") Duration refreshTokenTtl) {
+        this.tokenRepository = tokenRepository;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.rotations = Counter.builder("auth.refresh.rotations")
+                .description("Refresh tokens exchanged for a new pair")
+                .register(meterRegistry);
+        this.reuseDetected = Counter.builder("auth.refresh.reuse.detected")
+                .description("Used refresh tokens presented again")
+                .register(meterRegistry);
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    /** Starts a new token family, e.g. on login. */
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one. The revocation of a family on reuse must
+     * survive the exception, hence noRollbackFor.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String refreshToken) {
+        Token stored = tokenRepository.findByTokenHash(TokenDigest.sha256(refreshToken))
+                .filter(token -> token.getTokenType() == TokenType.REFRESH)
+                .orElseThrow(() -> new InvalidRefreshTokenException("Unknown refresh token"));
+        if (stored.getUsedAt() != null) {
+            throw reuseDetected(stored);
+        }
+        if (stored.isRevoked()) {
+            throw new InvalidRefreshTokenException("Refresh token revoked");
+        }
+        if (stored.getExpiresAt() == null || stored.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+        if (tokenRepository.markUsed(stored.getId(), Instant.now()) == 0) {
+            // Used or revoked since it was read: a concurrent use of the same token is a replay
+            if (tokenRepository.findUsedAtById(stored.getId()).isPresent()) {
+                throw reuseDetected(stored);
+            }
+            throw new InvalidRefreshTokenException("Refresh token revoked");
+        }
+        rotations.increment();
+        // Loaded inside the transaction; the new access token is built from the current role
+        User user = (User) Hibernate.unproxy(stored.getUser());
+        return new Rotation(user, issue(user, stored.getFamily()));
+    }
+
+    private InvalidRefreshTokenException reuseDetected(Token stored) {
+        reuseDetected.increment();
+        int revoked = tokenRepository.revokeFamily(stored.getFamily());
+        log.warn("Refresh token reuse detected for user {}, revoked {} tokens of family {}",
+                stored.getUser().getId(), revoked, stored.getFamily());
+        return new InvalidRefreshTokenException("Refresh token already used");
+    }
+
+    private String issue(User user, String family) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tokenRepository.save(Token.builder()
+                .user(user)
+                .tokenHash(TokenDigest.sha256(refreshToken))
+                .family(family)
+                .expiresAt(Instant.now().plus(refreshTokenTtl))
+                .tokenType(TokenType.REFRESH)
+                .revoked(false)
+                .expired(false)
+                .build());
+        return refreshToken;
+    }
+}
@@ -6,21 +6,40 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.boot.actuate.autoconfigure.wavefront.WavefrontProperties;
+
+import java.time.Instant;
 
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-public class Token {
+@Table(indexes = {
+        @Index(name = "idx_token_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_token_user_id", columnList = "user_id"),
+        @Index(name = "idx_token_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_token_family", columnList = "family")
+})
+public class Token implements TokenRevocationKey {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Integer id;
 
-    @Column(length = 1000)
-    private String token;
+    // SHA-256 hex digest of the refresh token; the token itself is never stored
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    // jti claim of a revoked access token, the key used by the in-memory revocation cache
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    // Refresh tokens rotated from the same login share a family, revoked as a whole on reuse
+    @Column(length = 36)
+    private String family;
 
     @Enumerated(EnumType.STRING)
     private TokenType tokenType;
@@ -29,7 +48,12 @@ public class Token {
 
     private boolean revoked;
 
-    @ManyToOne
+    // Set only when a refresh token is exchanged; a revoked but unused token (logout, new
+    // login) is refused without being taken for a replay
+    @Column(name = "used_at")
+    private Instant usedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 }
@@ -0,0 +1,76 @@
+package com.example.auth_service.token;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired tokens from the token table in bounded chunks.
+ * <p>
+ * An expired token is rejected by signature verification, so its row is no longer needed
+ * for revocation. Revoked tokens are kept until they expire, since the revocation cache
+ * is warmed from them at startup.
+ */
+@Component
+@Slf4j
+public class TokenReaper {
+
+    private final TokenRepository tokenRepository;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter deleted;
+    private final Timer runTimer;
+    private final AtomicLong lastRunDeleted = new AtomicLong();
+    private final AtomicLong lastRunEpochSeconds = new AtomicLong();
+
+    public TokenReaper(TokenRepository tokenRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${auth.token-reaper.batch-size:5000}") int batchSize,
+                       @Value("${auth.token-reaper.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.tokenRepository = tokenRepository;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.deleted = Counter.builder("auth.token.reaper.deleted")
+                .description("Expired token rows deleted")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("auth.token.reaper.run")
+                .description("Duration of a reaper run")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.reaper.last.run.deleted", lastRunDeleted, AtomicLong::get)
+                .description("Rows deleted by the last reaper run")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.reaper.last.run", lastRunEpochSeconds, AtomicLong::get)
+                .description("Epoch second at which the last reaper run finished")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.token-reaper.interval:600000}",
+            initialDelayString = "${auth.token-reaper.initial-delay:60000}")
+    public void reap() {
+        runTimer.record(() -> {
+            Instant cutoff = Instant.now();
+            long total = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                int count = tokenRepository.deleteExpiredBatch(cutoff, batchSize);
+                total += count;
+                deleted.increment(count);
+                if (count < batchSize) {
+                    break;
+                }
+            }
+            lastRunDeleted.set(total);
+            lastRunEpochSeconds.set(Instant.now().getEpochSecond());
+            if (total > 0) {
+                log.info("Token reaper deleted {} expired tokens", total);
+            }
+        });
+    }
+}
@@ -1,19 +1,54 @@
 package com.example.auth_service.token;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 public interface TokenRepository extends JpaRepository<Token, Integer> {
 
+    // Single set-based UPDATE instead of loading and saving every token of the user
+    @Modifying
+    @Transactional
     @Query(
             """
-select t from Token t inner join User u on t.user.id = u.id
-where u.id = :userId and (t.expired = false or t.revoked = false )
+update Token t set t.expired = true, t.revoked = true
+where t.user.id = :userId and (t.expired = false or t.revoked = false )
 """)
-    List<Token> findAllValidTokensByUser(Integer userId);
+    int revokeAllValidTokensByUser(Integer userId);
 
-    Optional<Token> findByToken(String token);
+    Optional<Token> findByTokenHash(String tokenHash);
+
+    // Conditional update: only one of two concurrent uses of a refresh token can win
+    @Modifying
+    @Transactional
+    @Query("update Token t set t.usedAt = :usedAt, t.revoked = true, t.expired = true where t.id = :id and t.usedAt is null and t.revoked = false")
+    int markUsed(Integer id, Instant usedAt);
+
+    @Query("select t.usedAt from Token t where t.id = :id")
+    Optional<Instant> findUsedAtById(Integer id);
+
+    @Modifying
+    @Transactional
+    @Query("update Token t set t.revoked = true, t.expired = true where t.family = :family and t.revoked = false")
+    int revokeFamily(String family);
+
+    @Query("select t.jti as jti, t.expiresAt as expiresAt from Token t where t.jti is not null and t.revoked = true and t.expiresAt > :now")
+    List<TokenRevocationKey> findAllRevokedNotExpired(Instant now);
+
+    // One bounded chunk per call and per transaction, so the reaper never holds long locks
+    @Modifying
+    @Transactional
+    @Query(value = """
+delete from token where id in (
+    select id from token
+    where expires_at < :cutoff or expires_at is null
+    limit :batchSize
+)
+""", nativeQuery = true)
+    int deleteExpiredBatch(Instant cutoff, int batchSize);
 }
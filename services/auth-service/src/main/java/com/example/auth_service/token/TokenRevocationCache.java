@@ -0,0 +1,114 @@
+package com.example.auth_service.token;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory denylist of revoked tokens, keyed by the jti claim.
+ * <p>
+ * Access tokens are not persisted: a token with a valid signature is trusted unless it
+ * appears here. Entries are kept only until the token's own expiry: after that the
+ * signature check rejects it anyway.
+ */
+@Component
+@Slf4j
+public class TokenRevocationCache {
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final TokenRepository tokenRepository;
+    private final Counter hits;
+    private final Counter misses;
+
+    public TokenRevocationCache(TokenRepository tokenRepository,
+                                MeterRegistry meterRegistry) {
+        this.tokenRepository = tokenRepository;
+        this.hits = Counter.builder("auth.revocation.cache.hits")
+                .description("Requests rejected because their token was revoked")
+                .register(meterRegistry);
+        this.misses = Counter.builder("auth.revocation.cache.misses")
+                .description("Requests whose token was not on the denylist")
+                .register(meterRegistry);
+        Gauge.builder("auth.revocation.cache.size", revoked, Map::size)
+                .description("Revoked tokens currently held in memory")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        Long expiresAt = revoked.get(jti);
+        if (expiresAt == null || expiresAt < System.currentTimeMillis()) {
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Unexpired revoked token ids with their expiry in epoch millis, as synced by the
+     * services that verify tokens locally.
+     */
+    public Map<String, Long> snapshot() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> active = new HashMap<>();
+        revoked.forEach((jti, expiresAt) -> {
+            if (expiresAt >= now) {
+                active.put(jti, expiresAt);
+            }
+        });
+        return active;
+    }
+
+    public void revoke(TokenRevocationKey token) {
+        // Expired tokens are already rejected by signature verification
+        if (token.getJti() != null && token.getExpiresAt() != null
+                && token.getExpiresAt().isAfter(Instant.now())) {
+            revoked.put(token.getJti(), token.getExpiresAt().toEpochMilli());
+        }
+    }
+
+    /**
+     * Denies an access token until it expires. Access tokens have no row of their own, so a
+     * denylist row is written for the entry to survive a restart.
+     */
+    public void revokeAccessToken(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        Token token = tokenRepository.save(Token.builder()
+                .jti(jti)
+                .expiresAt(expiresAt)
+                .tokenType(TokenType.BEARER)
+                .revoked(true)
+                .expired(true)
+                .build());
+        revoke(token);
+    }
+
+    public void revokeAll(Collection<? extends TokenRevocationKey> tokens) {
+        tokens.forEach(this::revoke);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        revokeAll(tokenRepository.findAllRevokedNotExpired(Instant.now()));
+        log.info("Loaded {} revoked tokens into the revocation cache", revoked.size());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.auth_service.token;
+
+import java.time.Instant;
+
+/**
+ * The two columns the revocation cache needs from a token row. Implemented by {@link Token}
+ * and used as a projection so revocation queries do not load whole entities.
+ */
+public interface TokenRevocationKey {
+
+    String getJti();
+
+    Instant getExpiresAt();
+}
@@ -1,5 +1,8 @@
 package com.example.auth_service.token;
 
 public enum TokenType {
+    // Revoked access token, kept only as a denylist entry until it expires
     BEARER,
+    // Opaque refresh token, rotated on every use
+    REFRESH
 }
@@ -0,0 +1,85 @@
+package com.example.auth_service.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenValidationCacheTest {
+
+    private static final Instant IN_AN_HOUR = Instant.now().plus(Duration.ofHours(1));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TokenValidationCache cache = new TokenValidationCache(meterRegistry, Duration.ofMinutes(5), 100);
+
+    @Test
+    void missThenHit() {
+        assertThat(cache.get("digest-1")).isNull();
+
+        cache.put("digest-1", response(1L), "jti-1", IN_AN_HOUR, cache.stamp());
+
+        TokenValidationCache.CachedValidation cached = cache.get("digest-1");
+        assertThat(cached).isNotNull();
+        assertThat(cached.jti()).isEqualTo("jti-1");
+        assertThat(cached.response().getUserId()).isEqualTo(1L);
+        assertThat(meterRegistry.counter("auth.validation.cache.misses").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("auth.validation.cache.hits").count()).isEqualTo(1);
+    }
+
+    @Test
+    void entryDoesNotOutliveItsToken() {
+        cache.put("digest-1", response(1L), "jti-1", Instant.now().minusSeconds(1), cache.stamp());
+
+        assertThat(cache.get("digest-1")).isNull();
+    }
+
+    @Test
+    void invalidateUserDropsOnlyThatUsersEntries() {
+        cache.put("digest-1", response(1L), "jti-1", IN_AN_HOUR, cache.stamp());
+        cache.put("digest-2", response(1L), "jti-2", IN_AN_HOUR, cache.stamp());
+        cache.put("digest-3", response(2L), "jti-3", IN_AN_HOUR, cache.stamp());
+
+        cache.invalidateUser(1);
+
+        assertThat(cache.get("digest-1")).isNull();
+        assertThat(cache.get("digest-2")).isNull();
+        assertThat(cache.get("digest-3")).isNotNull();
+    }
+
+    @Test
+    void invalidationDuringTheUserLoadIsNotOverwritten() {
+        // validateToken takes the stamp, then loads the user with its old role...
+        long stamp = cache.stamp();
+        // ...while the role changes and the user's entries are invalidated...
+        cache.invalidateUser(1);
+        // ...so the result built from the old role must not be cached
+        cache.put("digest-1", response(1L), "jti-1", IN_AN_HOUR, stamp);
+
+        assertThat(cache.get("digest-1")).isNull();
+    }
+
+    @Test
+    void invalidationOfAnotherUserOnlyCostsACacheMiss() {
+        long stamp = cache.stamp();
+        cache.invalidateUser(2);
+        cache.put("digest-1", response(1L), "jti-1", IN_AN_HOUR, stamp);
+
+        assertThat(cache.get("digest-1")).isNull();
+
+        cache.put("digest-1", response(1L), "jti-1", IN_AN_HOUR, cache.stamp());
+        assertThat(cache.get("digest-1")).isNotNull();
+    }
+
+    private static AuthValidationResponse response(Long userId) {
+        return AuthValidationResponse.builder()
+                .valid(true)
+                .message("Token valide")
+                .role("AGENT")
+                .userId(userId)
+                .email("user" + userId + "@airops.test")
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.auth_service.config;
+
+import com.example.auth_service.entity.Role;
+import com.example.auth_service.entity.User;
+import com.example.auth_service.jwk.JwtKey;
+import com.example.auth_service.jwk.JwtKeySource;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens validated per second by the request path, before and after caching the key and parser.
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.auth_service.config.JwtServiceBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+    private String legacyToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        JwtKey key = new JwtKey("bench", keyPair.getPrivate(), (RSAPublicKey) keyPair.getPublic(), Instant.EPOCH);
+        jwtService = new JwtService(new JwtKeySource() {
+            @Override
+            public JwtKey signingKey() {
+                return key;
+            }
+
+            @Override
+            public Optional<JwtKey> key(String kid) {
+                return Optional.of(key);
+            }
+
+            @Override
+            public List<JwtKey> publishedKeys() {
+                return List.of(key);
+            }
+        }, new RoleAuthorities(Map.of()), TimeUnit.MINUTES.toMillis(15));
+        user = User.builder()
+                .id(1)
+                .email("agent@airops.test")
+                .role(Role.AGENT)
+                .build();
+        token = jwtService.generateToken(user);
+        legacyToken = Jwts.builder()
+                .setSubject(user.getUsername())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+                .compact();
+    }
+
+    /** Original HS256 behaviour: key and parser rebuilt, token parsed three times (username, subject check, expiry). */
+    @Benchmark
+    public boolean legacyThreeParses() {
+        String username = legacyClaims(legacyToken).getSubject();
+        boolean sameUser = legacyClaims(legacyToken).getSubject().equals(user.getUsername());
+        boolean expired = legacyClaims(legacyToken).getExpiration().before(new Date());
+        return username != null && sameUser && !expired;
+    }
+
+    /** RS256 with the parser built once and a single parse per request. */
+    @Benchmark
+    public boolean cachedSingleParse() {
+        ParsedToken parsedToken = jwtService.parseToken(token);
+        return parsedToken.username() != null && jwtService.isTokenValid(parsedToken, user);
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .timeUnit(TimeUnit.SECONDS)
+                .build()).run();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.auth_service.token;
+
+import com.example.auth_service.entity.Role;
+import com.example.auth_service.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private final TokenRepository tokenRepository = mock(TokenRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RefreshTokenService service = new RefreshTokenService(tokenRepository, meterRegistry, Duration.ofDays(7));
+    private final User user = User.builder().id(7).email("agent@airops.test").role(Role.AGENT).build();
+
+    @Test
+    void issueStoresOnlyTheDigest() {
+        String refreshToken = service.issue(user);
+
+        Token saved = savedTokens(1).getValue();
+        assertThat(saved.getTokenHash()).isEqualTo(TokenDigest.sha256(refreshToken)).isNotEqualTo(refreshToken);
+        assertThat(saved.getTokenType()).isEqualTo(TokenType.REFRESH);
+        assertThat(saved.getFamily()).isNotBlank();
+        assertThat(saved.getExpiresAt()).isAfter(Instant.now().plus(Duration.ofDays(6)));
+    }
+
+    @Test
+    void rotateMarksTheTokenUsedAndIssuesOneInTheSameFamily() {
+        stored("presented", "family-1");
+        when(tokenRepository.markUsed(any(), any())).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = service.rotate("presented");
+
+        assertThat(rotation.user()).isSameAs(user);
+        assertThat(rotation.refreshToken()).isNotEqualTo("presented");
+        verify(tokenRepository).markUsed(any(), any());
+        Token next = savedTokens(1).getValue();
+        assertThat(next.getFamily()).isEqualTo("family-1");
+        assertThat(next.getTokenHash()).isEqualTo(TokenDigest.sha256(rotation.refreshToken()));
+        assertThat(meterRegistry.counter("auth.refresh.rotations").count()).isEqualTo(1);
+    }
+
+    @Test
+    void reusingAUsedTokenRevokesTheFamily() {
+        Token stored = stored("presented", "family-1");
+        stored.setUsedAt(Instant.now().minusSeconds(30));
+        stored.setRevoked(true);
+
+        assertThatThrownBy(() -> service.rotate("presented"))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("already used");
+
+        verify(tokenRepository).revokeFamily("family-1");
+        verify(tokenRepository, never()).markUsed(any(), any());
+        savedTokens(0);
+        assertThat(meterRegistry.counter("auth.refresh.reuse.detected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentUseOfTheSameTokenIsAReplay() {
+        stored("presented", "family-1");
+        // Another request marked it used between the read and the conditional update
+        when(tokenRepository.markUsed(any(), any())).thenReturn(0);
+        when(tokenRepository.findUsedAtById(anyInt())).thenReturn(Optional.of(Instant.now()));
+
+        assertThatThrownBy(() -> service.rotate("presented"))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("already used");
+
+        verify(tokenRepository).revokeFamily("family-1");
+        savedTokens(0);
+    }
+
+    @Test
+    void revokedButUnusedTokenIsRefusedWithoutRevokingTheFamily() {
+        Token stored = stored("presented", "family-1");
+        stored.setRevoked(true);
+
+        assertThatThrownBy(() -> service.rotate("presented"))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("revoked");
+
+        verify(tokenRepository, never()).revokeFamily(anyString());
+        savedTokens(0);
+    }
+
+    @Test
+    void expiredAndUnknownTokensAreRefused() {
+        Token stored = stored("presented", "family-1");
+        stored.setExpiresAt(Instant.now().minusSeconds(1));
+
+        assertThatThrownBy(() -> service.rotate("presented"))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("expired");
+        assertThatThrownBy(() -> service.rotate("unknown"))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("Unknown");
+        verify(tokenRepository, never()).markUsed(any(), any());
+    }
+
+    private Token stored(String refreshToken, String family) {
+        Token token = Token.builder()
+                .id(1)
+                .user(user)
+                .tokenHash(TokenDigest.sha256(refreshToken))
+                .family(family)
+                .expiresAt(Instant.now().plus(Duration.ofDays(1)))
+                .tokenType(TokenType.REFRESH)
+                .build();
+        when(tokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+        when(tokenRepository.findByTokenHash(TokenDigest.sha256(refreshToken))).thenReturn(Optional.of(token));
+        return token;
+    }
+
+    private ArgumentCaptor<Token> savedTokens(int count) {
+        ArgumentCaptor<Token> captor = ArgumentCaptor.forClass(Token.class);
+        verify(tokenRepository, times(count)).save(captor.capture());
+        return captor;
+    }
+}
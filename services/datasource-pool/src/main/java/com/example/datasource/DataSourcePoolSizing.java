@@ -0,0 +1,46 @@
+package com.example.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Sizes the Hikari pool of the JPA services from the core count unless
+ * spring.datasource.hikari.maximum-pool-size is set explicitly.
+ * <p>
+ * Uses the PostgreSQL rule of thumb of (cores * 2) + 1 connections: more connections than
+ * that only queue inside the database. The size is the same with virtual threads, since the
+ * database does not get faster, but requests are then no longer throttled by Tomcat's thread
+ * pool and all wait on this pool instead; it is kept fully open (minimum-idle = maximum) so a
+ * burst does not also wait for connections to be established.
+ */
+@AutoConfiguration
+@ConditionalOnClass(HikariDataSource.class)
+@Slf4j
+public class DataSourcePoolSizing {
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizing(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && !environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                    int poolSize = Runtime.getRuntime().availableProcessors() * 2 + 1;
+                    boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+                    dataSource.setMaximumPoolSize(poolSize);
+                    if (virtualThreads) {
+                        dataSource.setMinimumIdle(poolSize);
+                    }
+                    log.info("Hikari pool {} sized to {} connections (virtual threads: {})",
+                            dataSource.getPoolName(), poolSize, virtualThreads);
+                }
+                return bean;
+            }
+        };
+    }
+}
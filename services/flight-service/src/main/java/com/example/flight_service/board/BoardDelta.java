@@ -0,0 +1,21 @@
+package com.example.flight_service.board;
+
+/**
+ * Change of one board row, pushed to subscribers. flight is null for REMOVE; version grows by
+ * one per change, so a client can drop deltas already covered by its snapshot.
+ */
+public record BoardDelta(Type type, long version, Long id, BoardFlight flight) {
+
+    public enum Type {
+        UPSERT,
+        REMOVE
+    }
+
+    static BoardDelta upsert(long version, BoardFlight flight) {
+        return new BoardDelta(Type.UPSERT, version, flight.id(), flight);
+    }
+
+    static BoardDelta remove(long version, Long id) {
+        return new BoardDelta(Type.REMOVE, version, id, null);
+    }
+}
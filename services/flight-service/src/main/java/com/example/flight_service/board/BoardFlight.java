@@ -0,0 +1,36 @@
+package com.example.flight_service.board;
+
+import com.example.flight_service.entity.Flight;
+import com.example.flight_service.entity.FlightStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of the flight board: the columns a departures/arrivals screen shows, without notes or
+ * crew. Immutable, so a board snapshot can be shared between threads.
+ */
+public record BoardFlight(Long id,
+                          String flightNumber,
+                          String airline,
+                          String origin,
+                          String destination,
+                          LocalDateTime departureTime,
+                          LocalDateTime arrivalTime,
+                          String gate,
+                          FlightStatus status,
+                          String aircraftType,
+                          Long version) {
+
+    public static BoardFlight from(Flight flight) {
+        return new BoardFlight(flight.getId(), flight.getFlightNumber(), flight.getAirline(),
+                flight.getOrigin(), flight.getDestination(), flight.getDepartureTime(),
+                flight.getArrivalTime(), flight.getGate(), flight.getStatus(), flight.getAircraftType(),
+                flight.getVersion());
+    }
+
+    /** Copy with a new status and/or gate (null keeps the current one) at the given version. */
+    BoardFlight with(FlightStatus newStatus, String newGate, Long newVersion) {
+        return new BoardFlight(id, flightNumber, airline, origin, destination, departureTime, arrivalTime,
+                newGate != null ? newGate : gate, newStatus != null ? newStatus : status, aircraftType, newVersion);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.flight_service.board;
+
+import com.example.flight_service.entity.FlightStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable state of the board at one version: the flights in departure order plus the same
+ * rows grouped by gate, status and airline (each group also in departure order).
+ */
+public record BoardSnapshot(long version,
+                            LocalDateTime windowStart,
+                            LocalDateTime windowEnd,
+                            List<BoardFlight> flights) {
+
+    static final Comparator<BoardFlight> DEPARTURE_ORDER =
+            Comparator.comparing(BoardFlight::departureTime).thenComparing(BoardFlight::id);
+
+    static Indexed index(long version, LocalDateTime windowStart, LocalDateTime windowEnd,
+                         Collection<BoardFlight> flights) {
+        List<BoardFlight> ordered = new ArrayList<>(flights);
+        ordered.sort(DEPARTURE_ORDER);
+        Map<Long, BoardFlight> byId = new HashMap<>();
+        Map<String, List<BoardFlight>> byGate = new HashMap<>();
+        Map<FlightStatus, List<BoardFlight>> byStatus = new EnumMap<>(FlightStatus.class);
+        Map<String, List<BoardFlight>> byAirline = new HashMap<>();
+        for (BoardFlight flight : ordered) {
+            byId.put(flight.id(), flight);
+            byGate.computeIfAbsent(flight.gate(), key -> new ArrayList<>()).add(flight);
+            byStatus.computeIfAbsent(flight.status(), key -> new ArrayList<>()).add(flight);
+            byAirline.computeIfAbsent(flight.airline(), key -> new ArrayList<>()).add(flight);
+        }
+        BoardSnapshot snapshot = new BoardSnapshot(version, windowStart, windowEnd,
+                Collections.unmodifiableList(ordered));
+        return new Indexed(snapshot, byId, byGate, byStatus, byAirline);
+    }
+
+    /** Snapshot with its lookup maps; never modified once built. */
+    record Indexed(BoardSnapshot snapshot,
+                   Map<Long, BoardFlight> byId,
+                   Map<String, List<BoardFlight>> byGate,
+                   Map<FlightStatus, List<BoardFlight>> byStatus,
+                   Map<String, List<BoardFlight>> byAirline) {
+    }
+}
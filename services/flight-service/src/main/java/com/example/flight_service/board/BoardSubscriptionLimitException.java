@@ -0,0 +1,11 @@
+package com.example.flight_service.board;
+
+/**
+ * Too many open board streams on this instance; mapped to 503 Service Unavailable.
+ */
+public class BoardSubscriptionLimitException extends RuntimeException {
+
+    public BoardSubscriptionLimitException(String message) {
+        super(message);
+    }
+}
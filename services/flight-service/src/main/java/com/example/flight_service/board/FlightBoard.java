@@ -0,0 +1,295 @@
+package com.example.flight_service.board;
+
+import com.example.flight_service.dto.FlightFilter;
+import com.example.flight_service.entity.Flight;
+import com.example.flight_service.entity.FlightStatus;
+import com.example.flight_service.repository.FlightRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of today's flights (plus the first hours of tomorrow), for operations
+ * screens.
+ * <p>
+ * Reads never touch the database: they work on an immutable {@link BoardSnapshot} ordered by
+ * departure time and grouped by gate, status and airline. FlightService pushes each write
+ * here once saved; a periodic reload from the repository moves the window at midnight and
+ * picks up changes made by other instances. Writes rebuild the snapshot (a day of flights is
+ * a few thousand rows) and are pushed to open streams by {@link FlightBoardPublisher}.
+ */
+@Component
+@Slf4j
+public class FlightBoard {
+
+    private final FlightRepository flightRepository;
+    private final FlightBoardPublisher publisher;
+    private final ZoneId zone;
+    private final Duration lookAhead;
+    private final Timer reloadTimer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock: writes seen while a reload reads the database win over what it read
+    private final Map<Long, BoardFlight> writtenDuringReload = new HashMap<>();
+    private boolean reloading;
+
+    private volatile BoardSnapshot.Indexed state = BoardSnapshot.index(0, null, null, List.of());
+
+    public FlightBoard(FlightRepository flightRepository,
+                       FlightBoardPublisher publisher,
+                       MeterRegistry meterRegistry,
+                       @Value("${flight.board.zone:}") String zone,
+                       @Value("${flight.board.look-ahead:6h}") Duration lookAhead) {
+        this.flightRepository = flightRepository;
+        this.publisher = publisher;
+        this.zone = zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+        this.lookAhead = lookAhead;
+        this.reloadTimer = Timer.builder("flight.board.reload")
+                .description("Time to reload the flight board from the database")
+                .register(meterRegistry);
+        Gauge.builder("flight.board.flights", this, board -> board.state.snapshot().flights().size())
+                .description("Flights currently on the board")
+                .register(meterRegistry);
+    }
+
+    /** Board rows matching the filter, in departure order. */
+    public List<BoardFlight> find(FlightFilter filter) {
+        BoardSnapshot.Indexed current = state;
+        if (filter == null) {
+            return current.snapshot().flights();
+        }
+        List<BoardFlight> candidates = current.snapshot().flights();
+        candidates = smaller(candidates, filter.getGate(), current.byGate());
+        candidates = smaller(candidates, filter.getStatus(), current.byStatus());
+        candidates = smaller(candidates, filter.getAirline(), current.byAirline());
+        candidates = departureRange(candidates, filter.getFrom(), filter.getTo());
+        List<BoardFlight> result = new ArrayList<>();
+        for (BoardFlight flight : candidates) {
+            if (matches(filter, flight)) {
+                result.add(flight);
+            }
+        }
+        return result;
+    }
+
+    public BoardSnapshot snapshot(FlightFilter filter) {
+        BoardSnapshot current = state.snapshot();
+        return new BoardSnapshot(current.version(), current.windowStart(), current.windowEnd(), find(filter));
+    }
+
+    public SseEmitter subscribe(FlightFilter filter) {
+        return publisher.subscribe(filter, () -> snapshot(filter));
+    }
+
+    public void upsert(Flight flight) {
+        upsertAll(List.of(flight));
+    }
+
+    /** Applies several writes with a single snapshot rebuild, e.g. for an import batch. */
+    public void upsertAll(Collection<Flight> flights) {
+        lock.lock();
+        try {
+            BoardSnapshot.Indexed current = state;
+            Map<Long, BoardFlight> rows = new HashMap<>(current.byId());
+            for (Flight flight : flights) {
+                BoardFlight row = BoardFlight.from(flight);
+                if (reloading) {
+                    writtenDuringReload.put(row.id(), row);
+                }
+                if (inWindow(current.snapshot(), row)) {
+                    rows.put(row.id(), row);
+                } else {
+                    rows.remove(row.id());
+                }
+            }
+            apply(current, rows, current.snapshot().windowStart(), current.snapshot().windowEnd());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Status and/or gate change of flights updated without loading them (ids to new version).
+     * Flights not on the board stay off it: their departure time did not change.
+     */
+    public void patchAll(Map<Long, Long> versions, FlightStatus status, String gate) {
+        lock.lock();
+        try {
+            BoardSnapshot.Indexed current = state;
+            Map<Long, BoardFlight> rows = null;
+            for (Map.Entry<Long, Long> entry : versions.entrySet()) {
+                BoardFlight row = current.byId().get(entry.getKey());
+                if (row == null) {
+                    continue;
+                }
+                if (rows == null) {
+                    rows = new HashMap<>(current.byId());
+                }
+                BoardFlight patched = row.with(status, gate, entry.getValue());
+                rows.put(patched.id(), patched);
+                if (reloading) {
+                    writtenDuringReload.put(patched.id(), patched);
+                }
+            }
+            if (rows != null) {
+                apply(current, rows, current.snapshot().windowStart(), current.snapshot().windowEnd());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.lock();
+        try {
+            if (reloading) {
+                writtenDuringReload.put(id, null);
+            }
+            BoardSnapshot.Indexed current = state;
+            if (current.byId().containsKey(id)) {
+                Map<Long, BoardFlight> rows = new HashMap<>(current.byId());
+                rows.remove(id);
+                apply(current, rows, current.snapshot().windowStart(), current.snapshot().windowEnd());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Reloads the window from the database; differences are published like any write. */
+    @Scheduled(fixedDelayString = "${flight.board.reload-interval:300000}")
+    public void reload() {
+        LocalDate today = LocalDate.now(zone);
+        LocalDateTime windowStart = today.atStartOfDay();
+        LocalDateTime windowEnd = today.plusDays(1).atStartOfDay().plus(lookAhead);
+        lock.lock();
+        try {
+            reloading = true;
+            writtenDuringReload.clear();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            List<Flight> flights = reloadTimer.recordCallable(() ->
+                    flightRepository.findFlightsByDateRange(windowStart, windowEnd));
+            lock.lock();
+            try {
+                Map<Long, BoardFlight> rows = new HashMap<>();
+                for (Flight flight : flights) {
+                    rows.put(flight.getId(), BoardFlight.from(flight));
+                }
+                writtenDuringReload.forEach((id, row) -> {
+                    if (row == null) {
+                        rows.remove(id);
+                    } else {
+                        rows.put(id, row);
+                    }
+                });
+                rows.values().removeIf(row -> row.departureTime().isBefore(windowStart)
+                        || !row.departureTime().isBefore(windowEnd));
+                apply(state, rows, windowStart, windowEnd);
+            } finally {
+                lock.unlock();
+            }
+            log.debug("Flight board reloaded: {} flights from {} to {}", flights.size(), windowStart, windowEnd);
+        } catch (Exception e) {
+            log.warn("Flight board reload failed, keeping the current board: {}", e.getMessage());
+        } finally {
+            lock.lock();
+            try {
+                reloading = false;
+                writtenDuringReload.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    static boolean matches(FlightFilter filter, BoardFlight flight) {
+        if (filter == null) {
+            return true;
+        }
+        return (filter.getStatus() == null || filter.getStatus() == flight.status())
+                && (filter.getAirline() == null || filter.getAirline().equals(flight.airline()))
+                && (filter.getOrigin() == null || filter.getOrigin().equals(flight.origin()))
+                && (filter.getDestination() == null || filter.getDestination().equals(flight.destination()))
+                && (filter.getGate() == null || filter.getGate().equals(flight.gate()))
+                && (filter.getFrom() == null || !flight.departureTime().isBefore(filter.getFrom()))
+                && (filter.getTo() == null || flight.departureTime().isBefore(filter.getTo()));
+    }
+
+    // Must hold lock. Swaps in the new snapshot, then publishes one delta per changed row: a
+    // snapshot taken by the fan-out thread after a delta was queued then already includes it.
+    private void apply(BoardSnapshot.Indexed current, Map<Long, BoardFlight> rows,
+                       LocalDateTime windowStart, LocalDateTime windowEnd) {
+        record Change(BoardDelta delta, BoardFlight before, BoardFlight after) {
+        }
+        long version = current.snapshot().version();
+        List<Change> changes = new ArrayList<>();
+        for (Map.Entry<Long, BoardFlight> entry : rows.entrySet()) {
+            BoardFlight before = current.byId().get(entry.getKey());
+            if (!Objects.equals(before, entry.getValue())) {
+                version++;
+                changes.add(new Change(BoardDelta.upsert(version, entry.getValue()), before, entry.getValue()));
+            }
+        }
+        for (BoardFlight before : current.byId().values()) {
+            if (!rows.containsKey(before.id())) {
+                version++;
+                changes.add(new Change(BoardDelta.remove(version, before.id()), before, null));
+            }
+        }
+        if (version != current.snapshot().version() || !Objects.equals(windowStart, current.snapshot().windowStart())) {
+            state = BoardSnapshot.index(version, windowStart, windowEnd, rows.values());
+        }
+        for (Change change : changes) {
+            publisher.publish(change.delta(), change.before(), change.after());
+        }
+    }
+
+    private static boolean inWindow(BoardSnapshot snapshot, BoardFlight flight) {
+        return snapshot.windowStart() != null
+                && !flight.departureTime().isBefore(snapshot.windowStart())
+                && flight.departureTime().isBefore(snapshot.windowEnd());
+    }
+
+    private static <K> List<BoardFlight> smaller(List<BoardFlight> candidates, K key, Map<K, List<BoardFlight>> index) {
+        if (key == null) {
+            return candidates;
+        }
+        List<BoardFlight> indexed = index.getOrDefault(key, List.of());
+        return indexed.size() < candidates.size() ? indexed : candidates;
+    }
+
+    // Candidates are in departure order: binary search the [from, to) slice
+    private static List<BoardFlight> departureRange(List<BoardFlight> candidates, LocalDateTime from, LocalDateTime to) {
+        int start = from != null ? lowerBound(candidates, from) : 0;
+        int end = to != null ? lowerBound(candidates, to) : candidates.size();
+        return start < end ? candidates.subList(start, end) : List.of();
+    }
+
+    private static int lowerBound(List<BoardFlight> flights, LocalDateTime departureTime) {
+        BoardFlight probe = new BoardFlight(Long.MIN_VALUE, null, null, null, null, departureTime,
+                null, null, null, null, null);
+        int index = Collections.binarySearch(flights, probe, BoardSnapshot.DEPARTURE_ORDER);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.flight_service.board;
+
+import com.example.flight_service.dto.FlightFilter;
+import com.example.flight_service.sse.SseStream;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events fan-out of the flight board.
+ * <p>
+ * A subscriber first receives a "snapshot" event (the rows matching its filter), then
+ * "upsert" and "remove" events. A row leaving the filter (e.g. gate changed) is sent as a
+ * remove. Changes are fanned out on one thread, in version order, so the database is never
+ * touched per screen and each delta is serialized once whatever the number of subscribers.
+ * That thread only queues events on each stream ({@link SseStream}); writer threads send
+ * them, and a subscriber that falls max-queued events behind is disconnected.
+ * A snapshot can already include a few of the deltas that follow it; clients ignore deltas
+ * whose version is not above the snapshot's.
+ */
+@Component
+@Slf4j
+public class FlightBoardPublisher {
+
+    // Changes waiting for the fan-out thread; past that, every stream is closed and reconnects
+    private static final int FAN_OUT_QUEUE = 10_000;
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sender;
+    private final ExecutorService writers;
+    // Streams that received their snapshot, with their filter; added by the fan-out thread only
+    private final Map<SseStream, FlightFilter> subscriptions = new ConcurrentHashMap<>();
+    // Open streams, including those still waiting for their snapshot
+    private final AtomicInteger open = new AtomicInteger();
+    private final Duration streamTimeout;
+    private final int maxSubscribers;
+    private final int maxQueued;
+    private final Counter deltas;
+    private final Counter overflows;
+    private final Timer fanOut;
+
+    public FlightBoardPublisher(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${flight.board.stream-timeout:30m}") Duration streamTimeout,
+                                @Value("${flight.board.max-subscribers:5000}") int maxSubscribers,
+                                @Value("${flight.board.max-queued:256}") int maxQueued,
+                                @Value("${flight.board.writer-threads:4}") int writerThreads) {
+        this.objectMapper = objectMapper;
+        this.streamTimeout = streamTimeout;
+        this.maxSubscribers = maxSubscribers;
+        this.maxQueued = maxQueued;
+        this.sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(FAN_OUT_QUEUE), runnable -> {
+                    Thread thread = new Thread(runnable, "flight-board-sse");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // At most one drain task per stream is queued
+        this.writers = SseStream.writerPool("flight-board-writer", writerThreads, maxSubscribers);
+        this.deltas = Counter.builder("flight.board.deltas")
+                .description("Board changes pushed to subscribers")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("flight.board.overflows")
+                .description("Board streams closed for falling too far behind")
+                .register(meterRegistry);
+        this.fanOut = Timer.builder("flight.board.fanout")
+                .description("Time to queue one board change for every subscriber")
+                .register(meterRegistry);
+        Gauge.builder("flight.board.subscribers", open, AtomicInteger::get)
+                .description("Open flight board streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the filter. The snapshot is taken on the sender thread, right
+     * before the subscriber starts receiving deltas.
+     */
+    SseEmitter subscribe(FlightFilter filter, Supplier<BoardSnapshot> snapshot) {
+        if (open.incrementAndGet() > maxSubscribers) {
+            open.decrementAndGet();
+            throw new BoardSubscriptionLimitException("Too many flight board streams, retry later");
+        }
+        SseStream stream = new SseStream(newEmitter(streamTimeout), maxQueued, writers, closed -> {
+            open.decrementAndGet();
+            subscriptions.remove(closed);
+        }, overflows::increment);
+        boolean queued = execute(() -> {
+            BoardSnapshot current = snapshot.get();
+            if (stream.offer(SseEmitter.event()
+                    .name("snapshot")
+                    .id(Long.toString(current.version()))
+                    .data(toJson(current)))) {
+                subscriptions.put(stream, filter);
+                // Closed while the snapshot was queued: the close callback ran before the put
+                if (!stream.isOpen()) {
+                    subscriptions.remove(stream);
+                }
+            }
+        });
+        if (!queued) {
+            stream.complete();
+            throw new BoardSubscriptionLimitException("Flight board is busy, retry later");
+        }
+        return stream.emitter();
+    }
+
+    /** Queues a change; before and after are the row as seen by filters (either may be null). */
+    void publish(BoardDelta delta, BoardFlight before, BoardFlight after) {
+        deltas.increment();
+        execute(() -> fanOut.record(() -> {
+            String upsert = null;
+            String remove = null;
+            for (Map.Entry<SseStream, FlightFilter> subscription : subscriptions.entrySet()) {
+                boolean matchesAfter = after != null && FlightBoard.matches(subscription.getValue(), after);
+                boolean matchesBefore = before != null && FlightBoard.matches(subscription.getValue(), before);
+                if (matchesAfter) {
+                    if (upsert == null) {
+                        upsert = toJson(BoardDelta.upsert(delta.version(), after));
+                    }
+                    subscription.getKey().offer(event("upsert", delta.version(), upsert));
+                } else if (matchesBefore) {
+                    if (remove == null) {
+                        remove = toJson(BoardDelta.remove(delta.version(), delta.id()));
+                    }
+                    subscription.getKey().offer(event("remove", delta.version(), remove));
+                }
+            }
+        }));
+    }
+
+    // Comment lines keep proxies from closing idle streams and reveal dead clients
+    @Scheduled(fixedDelayString = "${flight.board.heartbeat-interval:15000}")
+    public void heartbeat() {
+        execute(() -> subscriptions.keySet().forEach(stream ->
+                stream.offer(SseEmitter.event().comment("keep-alive"))));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscriptions.keySet().forEach(SseStream::complete);
+        writers.shutdown();
+    }
+
+    // Overridden by tests to see what a subscriber receives
+    SseEmitter newEmitter(Duration timeout) {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    // A full fan-out queue means the thread is stuck: streams would miss changes, so they are
+    // closed and will reconnect to a fresh snapshot
+    private boolean execute(Runnable task) {
+        try {
+            sender.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (!sender.isShutdown()) {
+                log.warn("Flight board fan-out queue full, closing {} streams", subscriptions.size());
+                subscriptions.keySet().forEach(SseStream::complete);
+            }
+            return false;
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, long version, String json) {
+        return SseEmitter.event().name(name).id(Long.toString(version)).data(json);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize board event", e);
+        }
+    }
+}
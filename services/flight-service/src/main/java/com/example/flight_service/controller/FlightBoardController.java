@@ -0,0 +1,51 @@
+package com.example.flight_service.controller;
+
+import com.example.flight_service.board.BoardFlight;
+import com.example.flight_service.board.BoardSubscriptionLimitException;
+import com.example.flight_service.board.FlightBoard;
+import com.example.flight_service.dto.FlightFilter;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+// Flight board for operations screens, served from memory (see FlightBoard)
+@RestController
+@RequestMapping("/api/v1/flights/board")
+@RequiredArgsConstructor
+public class FlightBoardController {
+
+    private final FlightBoard flightBoard;
+
+    // Same filters as the flight list (status, airline, origin, destination, gate, from, to)
+    @GetMapping
+    public ResponseEntity<List<BoardFlight>> getBoard(FlightFilter filter) {
+        return ResponseEntity.ok(flightBoard.find(filter));
+    }
+
+    // Snapshot event, then upsert/remove deltas for the rows matching the filter
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBoard(FlightFilter filter, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        // Keeps reverse proxies such as nginx from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        return flightBoard.subscribe(filter);
+    }
+
+    @ExceptionHandler(BoardSubscriptionLimitException.class)
+    public ResponseEntity<Map<String, String>> handleSubscriptionLimit(BoardSubscriptionLimitException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("message", e.getMessage()));
+    }
+}
@@ -1,20 +1,41 @@
 package com.example.flight_service.controller;
 
+import com.example.flight_service.dto.BulkCrewRequest;
+import com.example.flight_service.dto.BulkCrewResponse;
+import com.example.flight_service.dto.BulkStatusRequest;
+import com.example.flight_service.dto.BulkStatusResponse;
+import com.example.flight_service.dto.FlightCrewRequest;
+import com.example.flight_service.dto.FlightFilter;
+import com.example.flight_service.dto.FlightPage;
+import com.example.flight_service.dto.FlightPatchRequest;
+import com.example.flight_service.dto.FlightPatchResponse;
 import com.example.flight_service.dto.FlightRequest;
 import com.example.flight_service.dto.FlightResponse;
 import com.example.flight_service.dto.FlightStatusRequest;
 import com.example.flight_service.entity.FlightStatus;
+import com.example.flight_service.gate.GateConflictException;
+import com.example.flight_service.service.CrewService;
+import com.example.flight_service.service.FlightImportService;
 import com.example.flight_service.service.FlightService;
+import com.example.flight_service.service.FlightVersionConflictException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.security.core.Authentication;
 
@@ -25,6 +46,8 @@ import org.springframework.security.core.Authentication;
 public class FlightController {
     
     private final FlightService flightService;
+    private final FlightImportService flightImportService;
+    private final CrewService crewService;
     
     // Public endpoints (no authentication required)
     @GetMapping("/statuses")
@@ -33,10 +56,21 @@ public class FlightController {
     }
     
     // Protected endpoints (authentication required)
+    
+    // Keyset-paginated list: filters as query parameters (status, airline, origin, destination,
+    // gate, from, to), optional fields=a,b,c; the next page's cursor is returned in X-Next-Cursor
     @GetMapping
-    public ResponseEntity<List<FlightResponse>> getAllFlights() {
-        List<FlightResponse> flights = flightService.getAllFlights();
-        return ResponseEntity.ok(flights);
+    public ResponseEntity<List<Map<String, Object>>> getAllFlights(
+            FlightFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Set<String> fields) {
+        FlightPage page = flightService.getFlightsPage(filter, cursor, limit, fields);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
     
     @GetMapping("/{id}")
@@ -51,6 +85,17 @@ public class FlightController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdFlight);
     }
     
+    // Bulk import of a schedule: CSV with a header of FlightRequest field names, or NDJSON.
+    // Answers NDJSON as it goes: one line per rejected or flagged row, then a summary line
+    @PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public void importFlights(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        FlightImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? FlightImportService.Format.CSV : FlightImportService.Format.NDJSON;
+        response.setContentType("application/x-ndjson");
+        flightImportService.importFlights(request.getInputStream(), format, response.getOutputStream());
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<FlightResponse> updateFlight(@PathVariable Long id, @RequestBody FlightRequest request) {
         FlightResponse updatedFlight = flightService.updateFlight(id, request);
@@ -59,14 +104,26 @@ public class FlightController {
     
     @PutMapping("/{id}/status")
     public ResponseEntity<Map<String, Object>> updateFlightStatus(@PathVariable Long id, @RequestBody FlightStatusRequest request) {
-        FlightResponse updatedFlight = flightService.updateFlightStatus(id, request);
+        FlightPatchResponse updatedFlight = flightService.updateFlightStatus(id, request);
         return ResponseEntity.ok(Map.of(
             "message", "Flight status updated successfully",
             "flightId", updatedFlight.getId(),
-            "newStatus", updatedFlight.getStatus()
+            "newStatus", updatedFlight.getStatus(),
+            "version", updatedFlight.getVersion()
         ));
     }
     
+    // Fast path for status and gate changes: one conditional UPDATE on the given version
+    @PatchMapping("/{id}")
+    public ResponseEntity<FlightPatchResponse> patchFlight(@PathVariable Long id, @RequestBody FlightPatchRequest request) {
+        return ResponseEntity.ok(flightService.patchFlight(id, request));
+    }
+    
+    @PatchMapping("/status")
+    public ResponseEntity<BulkStatusResponse> updateStatuses(@RequestBody BulkStatusRequest request) {
+        return ResponseEntity.ok(flightService.updateStatuses(request));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, String>> deleteFlight(@PathVariable Long id) {
         flightService.deleteFlight(id);
@@ -86,6 +143,60 @@ public class FlightController {
         return ResponseEntity.ok(flights);
     }
 
+    // Flights a staff member is on, in departure order, optionally within [from, to)
+    @GetMapping("/crew/{staffId}")
+    public ResponseEntity<List<FlightResponse>> getFlightsByCrewMember(
+            @PathVariable String staffId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(crewService.getFlightsByCrewMember(staffId, from, to, limit));
+    }
+    
+    @PostMapping("/crew")
+    public ResponseEntity<BulkCrewResponse> assignCrew(@RequestBody BulkCrewRequest request) {
+        return ResponseEntity.ok(crewService.assignCrew(request));
+    }
+    
+    @PutMapping("/{id}/crew")
+    public ResponseEntity<FlightResponse> replaceCrew(@PathVariable Long id, @RequestBody FlightCrewRequest request) {
+        return ResponseEntity.ok(crewService.replaceCrew(id, request));
+    }
+    
+    @DeleteMapping("/{id}/crew/{staffId}")
+    public ResponseEntity<FlightResponse> unassignCrewMember(@PathVariable Long id, @PathVariable String staffId) {
+        return ResponseEntity.ok(crewService.unassign(id, staffId));
+    }
+
+    @ExceptionHandler(GateConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleGateConflict(GateConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+            "message", e.getMessage(),
+            "conflicts", e.getConflicts()
+        ));
+    }
+
+    @ExceptionHandler(FlightVersionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleVersionConflict(FlightVersionConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+            "message", e.getMessage(),
+            "currentVersion", e.getCurrentVersion()
+        ));
+    }
+
+    // A concurrent write got in between the load and the save of a full update
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLock(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "Flight was modified concurrently, reload it and retry"));
+    }
+
+    // Invalid input, e.g. a malformed list cursor, unknown list fields or a bulk request over its limit
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+    }
+
     @GetMapping("/debug/auth")
     public ResponseEntity<Map<String, Object>> debugAuth(Authentication authentication) {
         Map<String, Object> debugInfo = new HashMap<>();
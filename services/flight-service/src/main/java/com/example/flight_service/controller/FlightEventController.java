@@ -0,0 +1,55 @@
+package com.example.flight_service.controller;
+
+import com.example.flight_service.outbox.EventSubscriptionLimitException;
+import com.example.flight_service.outbox.FlightEventPage;
+import com.example.flight_service.outbox.FlightEventRelay;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+// Feed of flight changes for downstream services, read from the outbox (see FlightEventRelay)
+@RestController
+@RequestMapping("/api/v1/flights/events")
+@RequiredArgsConstructor
+public class FlightEventController {
+
+    private final FlightEventRelay flightEventRelay;
+
+    // Pull: up to limit events after the offset, with the offset to continue from
+    @GetMapping
+    public ResponseEntity<FlightEventPage> getEvents(@RequestParam(defaultValue = "0") long after,
+                                                     @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(flightEventRelay.page(after, limit));
+    }
+
+    // Stream: batches of events after the offset (after, or Last-Event-ID on reconnect); new
+    // events only when neither is given
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(required = false) Long after,
+                                   @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+                                   HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        // Keeps reverse proxies such as nginx from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        return flightEventRelay.subscribe(lastEventId != null ? lastEventId : after);
+    }
+
+    @ExceptionHandler(EventSubscriptionLimitException.class)
+    public ResponseEntity<Map<String, String>> handleSubscriptionLimit(EventSubscriptionLimitException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("message", e.getMessage()));
+    }
+}
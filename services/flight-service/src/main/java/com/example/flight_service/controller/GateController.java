@@ -0,0 +1,29 @@
+package com.example.flight_service.controller;
+
+import com.example.flight_service.gate.GateAllocator;
+import com.example.flight_service.gate.GateConflict;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/flights/gates")
+@RequiredArgsConstructor
+public class GateController {
+
+    private final GateAllocator gateAllocator;
+
+    // Every pair of flights holding the same gate at the same time on that day (ISO date)
+    @GetMapping("/conflicts")
+    public ResponseEntity<List<GateConflict>> getConflicts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(gateAllocator.findConflicts(date));
+    }
+}
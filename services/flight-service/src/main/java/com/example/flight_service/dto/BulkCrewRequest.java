@@ -0,0 +1,19 @@
+package com.example.flight_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Crew assignments over any number of flights, applied in one transaction.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCrewRequest {
+    private List<CrewAssignmentRequest> assignments;
+}
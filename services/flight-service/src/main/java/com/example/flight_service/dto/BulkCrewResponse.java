@@ -0,0 +1,21 @@
+package com.example.flight_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * updated holds the new version of each flight whose crew changed; rejected the flight ids
+ * that do not exist.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCrewResponse {
+    private List<FlightVersion> updated;
+    private List<Long> rejected;
+}
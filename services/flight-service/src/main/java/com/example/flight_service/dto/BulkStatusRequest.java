@@ -0,0 +1,21 @@
+package com.example.flight_service.dto;
+
+import com.example.flight_service.entity.FlightStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Same status for many flights, each at the version the client last read (required).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusRequest {
+    private FlightStatus status;
+    private List<FlightVersion> flights;
+}
@@ -0,0 +1,21 @@
+package com.example.flight_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * updated holds the new version of each flight changed; rejected the ids that were missing,
+ * no longer at the expected version, or cancelled and refused their gate slot back.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResponse {
+    private List<FlightVersion> updated;
+    private List<Long> rejected;
+}
@@ -0,0 +1,18 @@
+package com.example.flight_service.dto;
+
+import com.example.flight_service.entity.CrewRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One staff member on one flight; a member already on the flight takes the new role
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrewAssignmentRequest {
+    private Long flightId;
+    private String staffId;
+    private CrewRole role;
+}
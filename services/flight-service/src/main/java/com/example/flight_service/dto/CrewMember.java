@@ -1,5 +1,6 @@
 package com.example.flight_service.dto;
 
+import com.example.flight_service.entity.CrewRole;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,10 +10,7 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class AuthValidationResponse {
-    private boolean valid;
-    private String message;
-    private String role;
-    private Long userId;
-    private String email;
-} 
\ No newline at end of file
+public class CrewMember {
+    private String staffId;
+    private CrewRole role;
+}
@@ -0,0 +1,20 @@
+package com.example.flight_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Whole crew of a flight, replacing the current one. version as in FlightRequest.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightCrewRequest {
+    private Long version;
+    private List<CrewMember> crew;
+}
@@ -0,0 +1,30 @@
+package com.example.flight_service.dto;
+
+import com.example.flight_service.entity.FlightStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters of the flight list, bound from query parameters. Null means "any".
+ * The departure window is [from, to).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightFilter {
+    private FlightStatus status;
+    private String airline;
+    private String origin;
+    private String destination;
+    private String gate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
@@ -0,0 +1,27 @@
+package com.example.flight_service.dto;
+
+import com.example.flight_service.gate.GateOccupancy;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of one import row worth reporting: either error is set (row skipped) or the row
+ * was imported with id despite gateConflicts (FLAG policy). line is 1-based, header included.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FlightImportResult {
+    private long line;
+    private String flightNumber;
+    private Long id;
+    private String error;
+    private List<GateOccupancy> gateConflicts;
+}
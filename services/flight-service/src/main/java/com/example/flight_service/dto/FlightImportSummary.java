@@ -0,0 +1,20 @@
+package com.example.flight_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last line of an import response.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightImportSummary {
+    private long rows;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+}
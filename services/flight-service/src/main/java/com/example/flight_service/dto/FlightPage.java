@@ -0,0 +1,22 @@
+package com.example.flight_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the flight list. Each item holds only the requested fields; nextCursor is
+ * null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightPage {
+    private List<Map<String, Object>> items;
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.example.flight_service.dto;
+
+import com.example.flight_service.entity.FlightStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Status and/or gate change. version, required, is the one the client last read.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightPatchRequest {
+    private Long version;
+    private FlightStatus status;
+    private String gate;
+}
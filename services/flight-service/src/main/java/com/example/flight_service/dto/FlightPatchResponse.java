@@ -0,0 +1,26 @@
+package com.example.flight_service.dto;
+
+import com.example.flight_service.entity.FlightStatus;
+import com.example.flight_service.gate.GateOccupancy;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a status/gate change: the fields that were set and the new version. gateConflicts
+ * lists the flights already at the new gate when it was accepted anyway (FLAG policy).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightPatchResponse {
+    private Long id;
+    private Long version;
+    private FlightStatus status;
+    private String gate;
+    private List<GateOccupancy> gateConflicts;
+}
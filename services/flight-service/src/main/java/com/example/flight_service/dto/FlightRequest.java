@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -22,9 +23,14 @@ public class FlightRequest {
     private String gate;
     private FlightStatus status;
     private String aircraftType;
+    // Whole crew; when null, pilotId, coPilotId and crewMembers (comma-separated staff ids)
+    // set the members of their role, and the others are kept on update
+    private List<CrewMember> crew;
     private String pilotId;
     private String coPilotId;
     private String crewMembers;
     private Integer passengerCount;
     private String notes;
+    // Version the client last read; when set, the update is refused if the flight changed since
+    private Long version;
 } 
\ No newline at end of file
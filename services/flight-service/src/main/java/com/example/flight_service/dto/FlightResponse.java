@@ -1,12 +1,14 @@
 package com.example.flight_service.dto;
 
 import com.example.flight_service.entity.FlightStatus;
+import com.example.flight_service.gate.GateOccupancy;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -23,6 +25,8 @@ public class FlightResponse {
     private String gate;
     private FlightStatus status;
     private String aircraftType;
+    private List<CrewMember> crew;
+    // Derived from crew, for clients of the former columns
     private String pilotId;
     private String coPilotId;
     private String crewMembers;
@@ -30,4 +34,7 @@ public class FlightResponse {
     private String notes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+    // Flights already holding the gate, set when the write was saved despite them (FLAG policy)
+    private List<GateOccupancy> gateConflicts;
 } 
\ No newline at end of file
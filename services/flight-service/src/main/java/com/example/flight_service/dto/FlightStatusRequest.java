@@ -13,4 +13,6 @@ import lombok.NoArgsConstructor;
 public class FlightStatusRequest {
     private FlightStatus status;
     private String reason;
+    // Optional for older clients: the update only applies while the flight is still at this version
+    private Long version;
 } 
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.flight_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A staff member on a flight. Saved through {@link Flight#getCrew()}; departureTime follows
+ * the flight's so the flights of a staff member come from one index (see V6 migration).
+ */
+@Entity
+@Table(name = "flight_crew")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+public class CrewAssignment {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flight_crew_seq")
+    @SequenceGenerator(name = "flight_crew_seq", sequenceName = "flight_crew_seq", allocationSize = 50)
+    private Long id;
+    
+    // Written through the join column of Flight.crew
+    @Column(name = "flight_id", insertable = false, updatable = false)
+    private Long flightId;
+    
+    @Column(name = "staff_id", nullable = false)
+    private String staffId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CrewRole role;
+    
+    @Column(name = "departure_time", nullable = false)
+    private LocalDateTime departureTime;
+    
+    @CreatedDate
+    @Column(name = "assigned_at", nullable = false, updatable = false)
+    private LocalDateTime assignedAt;
+}
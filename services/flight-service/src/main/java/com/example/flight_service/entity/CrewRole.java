@@ -0,0 +1,7 @@
+package com.example.flight_service.entity;
+
+public enum CrewRole {
+    PILOT,
+    CO_PILOT,
+    CABIN_CREW
+}
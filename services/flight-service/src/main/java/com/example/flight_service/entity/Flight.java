@@ -4,12 +4,19 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "flights")
@@ -18,10 +25,14 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+// Second-level cache; the SQL fast path evicts what it changes (see FlightCache)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Flight {
     
+    // Sequence ids are allocated in blocks of 50 so inserts can be batched (see V3 migration)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flights_seq")
+    @SequenceGenerator(name = "flights_seq", sequenceName = "flights_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -52,15 +63,6 @@ public class Flight {
     @Column(nullable = false)
     private String aircraftType;
     
-    @Column(name = "pilot_id")
-    private String pilotId;
-    
-    @Column(name = "co_pilot_id")
-    private String coPilotId;
-    
-    @Column(name = "crew_members")
-    private String crewMembers;
-    
     @Column(name = "passenger_count")
     private Integer passengerCount;
     
@@ -74,4 +76,20 @@ public class Flight {
     @LastModifiedDate
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+    
+    // Bumped by every update, including the SQL fast path of FlightFastUpdates
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
+    // Loaded on access, 100 flights at a time when a list of flights is mapped. A crew change
+    // bumps the flight's version like any other change.
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "flight_id", nullable = false)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<CrewAssignment> crew = new ArrayList<>();
 } 
\ No newline at end of file
@@ -0,0 +1,533 @@
+package com.example.flight_service.gate;
+
+import com.example.flight_service.entity.Flight;
+import com.example.flight_service.entity.FlightStatus;
+import com.example.flight_service.repository.FlightRepository;
+import com.example.flight_service.repository.GateSlot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Gate timelines: one {@link IntervalTree} per gate, holding every flight from
+ * flight.gates.history ago onwards that is not cancelled.
+ * <p>
+ * A flight holds its gate from turnaround-before ahead of its departure until
+ * turnaround-after past it. {@link #allocate} checks a create or update against the tree of
+ * its gate in O(log n) and, depending on flight.gates.on-conflict, refuses it or saves it
+ * with the conflicts attached. The check puts a provisional slot in the tree under the lock,
+ * so a concurrent write on this instance sees it; the save runs outside the lock, then the
+ * slot is confirmed under the saved flight's id, or dropped if the save failed. Writes
+ * through other instances are refused by the flights_gate_no_overlap constraint (V7) under
+ * REJECT, picked up by the periodic reload, and {@link #findConflicts} reads the database,
+ * so it sees them all.
+ */
+@Component
+@Slf4j
+public class GateAllocator {
+
+    public record Allocation(Flight flight, List<GateOccupancy> conflicts) {
+    }
+
+    /** Result of {@link #change}: the new version, empty if the update did not apply. */
+    public record Change(Optional<Long> version, List<GateOccupancy> conflicts) {
+    }
+
+    /**
+     * Result of {@link #changeStatuses}: the new version of each flight updated, and the
+     * conflicts of the flights taking their slot back, by flight id.
+     */
+    public record StatusChange(Map<Long, Long> versions, Map<Long, List<GateOccupancy>> conflicts) {
+    }
+
+    // exclusion_violation, raised by flights_gate_no_overlap
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private final FlightRepository flightRepository;
+    private final Duration turnaroundBefore;
+    private final Duration turnaroundAfter;
+    private final Duration history;
+    private final GateConflictPolicy policy;
+    private final Counter rejected;
+    private final Counter flagged;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private final Map<String, IntervalTree<GateOccupancy>> gates = new HashMap<>();
+    private final Map<Long, GateOccupancy> byFlight = new HashMap<>();
+    private final Map<Long, GateOccupancy> writtenDuringReload = new HashMap<>();
+    // Slots of writes in progress, under negative keys; kept across reloads
+    private final Map<Long, GateOccupancy> provisional = new HashMap<>();
+    private long lastProvisionalKey;
+    private boolean reloading;
+
+    public GateAllocator(FlightRepository flightRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${flight.gates.turnaround-before:45m}") Duration turnaroundBefore,
+                         @Value("${flight.gates.turnaround-after:15m}") Duration turnaroundAfter,
+                         @Value("${flight.gates.history:1d}") Duration history,
+                         @Value("${flight.gates.on-conflict:REJECT}") GateConflictPolicy policy) {
+        this.flightRepository = flightRepository;
+        this.turnaroundBefore = turnaroundBefore;
+        this.turnaroundAfter = turnaroundAfter;
+        this.history = history;
+        this.policy = policy;
+        this.rejected = Counter.builder("flight.gates.conflicts")
+                .tag("outcome", "rejected")
+                .description("Flight writes that collided with another flight at the gate")
+                .register(meterRegistry);
+        this.flagged = Counter.builder("flight.gates.conflicts")
+                .tag("outcome", "flagged")
+                .description("Flight writes that collided with another flight at the gate")
+                .register(meterRegistry);
+        Gauge.builder("flight.gates.tracked", byFlight, Map::size)
+                .description("Flights on the in-memory gate timelines")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks the candidate's gate slot, then runs save and records the saved flight. Throws
+     * {@link GateConflictException} when the slot is taken and the policy is REJECT.
+     */
+    public Allocation allocate(Flight candidate, Supplier<Flight> save) {
+        long key;
+        List<GateOccupancy> conflicts;
+        lock.lock();
+        try {
+            conflicts = conflictsOf(candidate);
+            if (!conflicts.isEmpty()) {
+                if (policy == GateConflictPolicy.REJECT) {
+                    rejected.increment();
+                    throw new GateConflictException("Gate " + candidate.getGate() + " is already held by "
+                            + conflicts.stream().map(GateOccupancy::flightNumber).toList(), conflicts);
+                }
+                flagged.increment();
+                log.warn("Flight {} overlaps {} at gate {}", candidate.getFlightNumber(),
+                        conflicts.stream().map(GateOccupancy::flightNumber).toList(), candidate.getGate());
+            }
+            key = reserve(candidate);
+        } finally {
+            lock.unlock();
+        }
+        Flight saved = null;
+        try {
+            saved = saveOrConflict(candidate.getGate(), save);
+        } finally {
+            confirm(List.of(key), saved != null ? List.of(saved) : List.of());
+        }
+        return new Allocation(saved, conflicts);
+    }
+
+    /**
+     * Batch form of {@link #allocate}: each candidate is checked against the timelines and
+     * against the candidates before it, then the accepted ones are saved in one call. The
+     * result is aligned with candidates; a rejected candidate has a null flight.
+     */
+    public List<Allocation> allocateAll(List<Flight> candidates, UnaryOperator<List<Flight>> saveAll) {
+        List<List<GateOccupancy>> conflicts = new ArrayList<>(candidates.size());
+        List<Flight> accepted = new ArrayList<>(candidates.size());
+        List<Long> keys = new ArrayList<>(candidates.size());
+        lock.lock();
+        try {
+            for (Flight candidate : candidates) {
+                // Later candidates of the batch see the slots reserved for the earlier ones
+                List<GateOccupancy> found = conflictsOf(candidate);
+                conflicts.add(found);
+                if (!found.isEmpty()) {
+                    if (policy == GateConflictPolicy.REJECT) {
+                        rejected.increment();
+                        continue;
+                    }
+                    flagged.increment();
+                }
+                accepted.add(candidate);
+                keys.add(reserve(candidate));
+            }
+        } finally {
+            lock.unlock();
+        }
+        List<Flight> saved = List.of();
+        try {
+            // A constraint violation fails the whole batch; callers retry its flights one by one
+            if (!accepted.isEmpty()) {
+                saved = saveAll.apply(accepted);
+            }
+        } finally {
+            confirm(keys, saved);
+        }
+        List<Allocation> allocations = new ArrayList<>(candidates.size());
+        int next = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            boolean wasAccepted = next < accepted.size() && accepted.get(next) == candidates.get(i);
+            allocations.add(new Allocation(wasAccepted ? saved.get(next++) : null, conflicts.get(i)));
+        }
+        return allocations;
+    }
+
+    /** Records the flight's current gate slot (none if cancelled) without checking it. */
+    public void track(Flight flight) {
+        lock.lock();
+        try {
+            record(flight.getId(), holdsGate(flight) ? occupancy(flight.getId(), flight.getFlightNumber(),
+                    flight.getGate(), flight.getDepartureTime()) : null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Long flightId) {
+        lock.lock();
+        try {
+            record(flightId, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Status and/or gate change of a stored flight, applied by update without loading the
+     * flight. A new gate is checked like {@link #allocate} does, from the slot already
+     * tracked for the flight; a cancelled flight given another status has no tracked slot, so
+     * its stored one is read and checked instead. Once update returns a version, the slot is
+     * moved, taken back, or freed on cancellation.
+     */
+    public Change change(Long flightId, FlightStatus status, String gate, Supplier<Optional<Long>> update) {
+        GateSlot cancelled = leavesCancelled(status) && !isTracked(flightId)
+                ? flightRepository.findCancelledGateSlots(List.of(flightId)).stream().findFirst().orElse(null)
+                : null;
+        GateOccupancy target = null;
+        List<GateOccupancy> conflicts = List.of();
+        Long key = null;
+        lock.lock();
+        try {
+            GateOccupancy current = byFlight.get(flightId);
+            if (cancelled != null) {
+                target = occupancy(cancelled, gate);
+            } else if (gate != null && current != null && !gate.equals(current.gate())
+                    && status != FlightStatus.CANCELLED) {
+                target = new GateOccupancy(flightId, current.flightNumber(), gate, current.from(), current.to());
+            }
+            if (target != null) {
+                conflicts = overlapping(target, flightId);
+                if (!conflicts.isEmpty()) {
+                    if (policy == GateConflictPolicy.REJECT) {
+                        rejected.increment();
+                        throw new GateConflictException("Gate " + target.gate() + " is already held by "
+                                + conflicts.stream().map(GateOccupancy::flightNumber).toList(), conflicts);
+                    }
+                    flagged.increment();
+                }
+                key = reserve(target);
+            }
+        } finally {
+            lock.unlock();
+        }
+        Optional<Long> version = Optional.empty();
+        try {
+            version = saveOrConflict(target != null ? target.gate() : gate, update);
+        } finally {
+            lock.lock();
+            try {
+                if (key != null) {
+                    unreserve(key);
+                }
+                if (version.isPresent() && (status == FlightStatus.CANCELLED || target != null)) {
+                    record(flightId, status == FlightStatus.CANCELLED ? null : target);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return new Change(version, conflicts);
+    }
+
+    /**
+     * Batch form of {@link #change} for a status change alone. The cancelled flights among
+     * flightIds that the status brings back are checked against the timelines and against
+     * each other; under REJECT the conflicting ones are left out of the ids passed to update.
+     * update returns the new version of each flight it changed.
+     */
+    public StatusChange changeStatuses(Collection<Long> flightIds, FlightStatus status,
+                                       Function<Set<Long>, Map<Long, Long>> update) {
+        List<Long> untracked = List.of();
+        if (leavesCancelled(status)) {
+            lock.lock();
+            try {
+                untracked = flightIds.stream().filter(flightId -> !byFlight.containsKey(flightId)).toList();
+            } finally {
+                lock.unlock();
+            }
+        }
+        List<GateSlot> cancelled = untracked.isEmpty() ? List.of() : flightRepository.findCancelledGateSlots(untracked);
+        Set<Long> accepted = new LinkedHashSet<>(flightIds);
+        Map<Long, GateOccupancy> targets = new HashMap<>();
+        Map<Long, List<GateOccupancy>> conflicts = new HashMap<>();
+        List<Long> keys = new ArrayList<>();
+        lock.lock();
+        try {
+            for (GateSlot slot : cancelled) {
+                GateOccupancy target = occupancy(slot, null);
+                if (target == null) {
+                    continue;
+                }
+                // Later flights of the batch see the slots reserved for the earlier ones
+                List<GateOccupancy> found = overlapping(target, slot.getId());
+                if (!found.isEmpty()) {
+                    conflicts.put(slot.getId(), found);
+                    if (policy == GateConflictPolicy.REJECT) {
+                        rejected.increment();
+                        accepted.remove(slot.getId());
+                        continue;
+                    }
+                    flagged.increment();
+                }
+                targets.put(slot.getId(), target);
+                keys.add(reserve(target));
+            }
+        } finally {
+            lock.unlock();
+        }
+        Map<Long, Long> versions = Map.of();
+        try {
+            if (!accepted.isEmpty()) {
+                versions = saveOrConflict(null, () -> update.apply(accepted));
+            }
+        } finally {
+            lock.lock();
+            try {
+                keys.forEach(this::unreserve);
+                for (Long flightId : versions.keySet()) {
+                    if (status == FlightStatus.CANCELLED) {
+                        record(flightId, null);
+                    } else if (targets.containsKey(flightId)) {
+                        record(flightId, targets.get(flightId));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return new StatusChange(versions, conflicts);
+    }
+
+    /**
+     * Every pair of flights sharing a gate at some point of the day, read from the database.
+     * Each gate's flights go through an interval tree in start order, so the day costs
+     * O(n log n + k) instead of comparing every pair.
+     */
+    public List<GateConflict> findConflicts(LocalDate date) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+        List<GateSlot> slots = flightRepository.findGateSlots(dayStart.minus(turnaroundAfter),
+                dayEnd.plus(turnaroundBefore));
+        Map<String, List<GateOccupancy>> byGate = new TreeMap<>();
+        for (GateSlot slot : slots) {
+            byGate.computeIfAbsent(slot.getGate(), gate -> new ArrayList<>())
+                    .add(occupancy(slot.getId(), slot.getFlightNumber(), slot.getGate(), slot.getDepartureTime()));
+        }
+        List<GateConflict> conflicts = new ArrayList<>();
+        byGate.forEach((gate, occupancies) -> {
+            occupancies.sort(Comparator.comparing(GateOccupancy::from).thenComparing(GateOccupancy::flightId));
+            IntervalTree<GateOccupancy> tree = new IntervalTree<>();
+            for (GateOccupancy occupancy : occupancies) {
+                for (GateOccupancy earlier : tree.overlapping(occupancy.from(), occupancy.to(), null)) {
+                    LocalDateTime overlapFrom = occupancy.from();
+                    LocalDateTime overlapTo = earlier.to().isBefore(occupancy.to()) ? earlier.to() : occupancy.to();
+                    // Overlaps entirely in the neighbouring days belong to their report
+                    if (overlapFrom.isBefore(dayEnd) && overlapTo.isAfter(dayStart)) {
+                        conflicts.add(new GateConflict(gate, earlier, occupancy, overlapFrom, overlapTo));
+                    }
+                }
+                tree.insert(occupancy.flightId(), occupancy.from(), occupancy.to(), occupancy);
+            }
+        });
+        return conflicts;
+    }
+
+    /** Rebuilds the timelines from the database; writes made meanwhile are kept. */
+    @Scheduled(fixedDelayString = "${flight.gates.reload-interval:300000}")
+    public void reload() {
+        lock.lock();
+        try {
+            reloading = true;
+            writtenDuringReload.clear();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            List<GateSlot> slots = flightRepository.findGateSlotsFrom(LocalDateTime.now().minus(history));
+            lock.lock();
+            try {
+                gates.clear();
+                byFlight.clear();
+                for (GateSlot slot : slots) {
+                    put(slot.getId(), occupancy(slot.getId(), slot.getFlightNumber(), slot.getGate(),
+                            slot.getDepartureTime()));
+                }
+                writtenDuringReload.forEach(this::put);
+                provisional.forEach(this::put);
+            } finally {
+                lock.unlock();
+            }
+            log.debug("Gate timelines reloaded: {} flights on {} gates", slots.size(), gates.size());
+        } catch (Exception e) {
+            log.warn("Gate timeline reload failed, keeping the current timelines: {}", e.getMessage());
+        } finally {
+            lock.lock();
+            try {
+                reloading = false;
+                writtenDuringReload.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Must hold lock
+    private List<GateOccupancy> conflictsOf(Flight flight) {
+        if (!holdsGate(flight)) {
+            return List.of();
+        }
+        return overlapping(occupancy(flight.getId(), flight.getFlightNumber(), flight.getGate(),
+                flight.getDepartureTime()), flight.getId());
+    }
+
+    // Must hold lock. Leaves out the flight's own slots, tracked or provisional.
+    private List<GateOccupancy> overlapping(GateOccupancy occupancy, Long flightId) {
+        IntervalTree<GateOccupancy> tree = gates.get(occupancy.gate());
+        if (tree == null) {
+            return List.of();
+        }
+        List<GateOccupancy> found = tree.overlapping(occupancy.from(), occupancy.to(), flightId);
+        return flightId == null ? found
+                : found.stream().filter(other -> !flightId.equals(other.flightId())).toList();
+    }
+
+    // Must hold lock. Holds the candidate's slot while it is saved; returns the key to drop it with.
+    private long reserve(Flight candidate) {
+        return holdsGate(candidate) ? reserve(occupancy(candidate.getId(), candidate.getFlightNumber(),
+                candidate.getGate(), candidate.getDepartureTime())) : 0;
+    }
+
+    // Must hold lock
+    private long reserve(GateOccupancy occupancy) {
+        long key = --lastProvisionalKey;
+        provisional.put(key, occupancy);
+        put(key, occupancy);
+        return key;
+    }
+
+    // Must hold lock
+    private void unreserve(long key) {
+        if (provisional.remove(key) != null) {
+            put(key, null);
+        }
+    }
+
+    // Swaps the provisional slots for the saved flights; with none saved, just frees the slots
+    private void confirm(List<Long> keys, List<Flight> saved) {
+        lock.lock();
+        try {
+            keys.forEach(this::unreserve);
+            saved.forEach(this::track);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Must hold lock. A write of this instance, kept if a reload is running.
+    private void record(Long flightId, GateOccupancy occupancy) {
+        put(flightId, occupancy);
+        if (reloading) {
+            writtenDuringReload.put(flightId, occupancy);
+        }
+    }
+
+    // A slot taken through another instance surfaces as the exclusion constraint failing
+    private <T> T saveOrConflict(String gate, Supplier<T> save) {
+        try {
+            return save.get();
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sql && EXCLUSION_VIOLATION.equals(sql.getSQLState())) {
+                rejected.increment();
+                throw new GateConflictException((gate != null ? "Gate " + gate : "A gate")
+                        + " is already held at that time", List.of());
+            }
+            throw e;
+        }
+    }
+
+    // Must hold lock. Replaces the flight's slot; null removes it.
+    private void put(Long flightId, GateOccupancy occupancy) {
+        GateOccupancy previous = byFlight.remove(flightId);
+        if (previous != null) {
+            IntervalTree<GateOccupancy> tree = gates.get(previous.gate());
+            tree.remove(flightId, previous.from());
+            if (tree.size() == 0) {
+                gates.remove(previous.gate());
+            }
+        }
+        if (occupancy != null) {
+            byFlight.put(flightId, occupancy);
+            gates.computeIfAbsent(occupancy.gate(), gate -> new IntervalTree<>())
+                    .insert(flightId, occupancy.from(), occupancy.to(), occupancy);
+        }
+    }
+
+    // Slot of a stored cancelled flight once back, at gate if given; null if it has no gate or time
+    private GateOccupancy occupancy(GateSlot cancelled, String gate) {
+        String held = gate != null ? gate : cancelled.getGate();
+        return held != null && cancelled.getDepartureTime() != null
+                ? occupancy(cancelled.getId(), cancelled.getFlightNumber(), held, cancelled.getDepartureTime())
+                : null;
+    }
+
+    private GateOccupancy occupancy(Long flightId, String flightNumber, String gate, LocalDateTime departureTime) {
+        return new GateOccupancy(flightId, flightNumber, gate,
+                departureTime.minus(turnaroundBefore), departureTime.plus(turnaroundAfter));
+    }
+
+    private boolean isTracked(Long flightId) {
+        lock.lock();
+        try {
+            return byFlight.containsKey(flightId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A status other than CANCELLED may bring a cancelled flight back
+    private static boolean leavesCancelled(FlightStatus status) {
+        return status != null && status != FlightStatus.CANCELLED;
+    }
+
+    private static boolean holdsGate(Flight flight) {
+        return flight.getStatus() != FlightStatus.CANCELLED
+                && flight.getGate() != null
+                && flight.getDepartureTime() != null;
+    }
+}
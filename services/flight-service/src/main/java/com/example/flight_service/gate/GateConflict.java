@@ -0,0 +1,13 @@
+package com.example.flight_service.gate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Two flights holding the same gate at the same time; first starts no later than second.
+ */
+public record GateConflict(String gate,
+                           GateOccupancy first,
+                           GateOccupancy second,
+                           LocalDateTime overlapFrom,
+                           LocalDateTime overlapTo) {
+}
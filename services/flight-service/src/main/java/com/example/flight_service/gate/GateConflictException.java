@@ -0,0 +1,20 @@
+package com.example.flight_service.gate;
+
+import java.util.List;
+
+/**
+ * Flight refused because its gate is already held at that time; mapped to 409 Conflict.
+ */
+public class GateConflictException extends RuntimeException {
+
+    private final List<GateOccupancy> conflicts;
+
+    public GateConflictException(String message, List<GateOccupancy> conflicts) {
+        super(message);
+        this.conflicts = conflicts;
+    }
+
+    public List<GateOccupancy> getConflicts() {
+        return conflicts;
+    }
+}
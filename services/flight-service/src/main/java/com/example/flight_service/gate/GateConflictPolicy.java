@@ -0,0 +1,11 @@
+package com.example.flight_service.gate;
+
+/**
+ * What a create or update does when the flight's gate is already held (flight.gates.on-conflict).
+ */
+public enum GateConflictPolicy {
+    /** Refuse the write with 409 Conflict. */
+    REJECT,
+    /** Save the flight and return the conflicts with it. */
+    FLAG
+}
@@ -0,0 +1,50 @@
+package com.example.flight_service.gate;
+
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands the gate settings to the flights_gate_no_overlap migration (V7) as Flyway placeholders.
+ * <p>
+ * The turnarounds are bound as {@link Duration}s, like {@link GateAllocator} binds them, and
+ * written as explicit PostgreSQL intervals ("2700 seconds"): the Spring form ("45m") would be
+ * read by PostgreSQL under its own rules. Settings that cannot be expressed stop the startup
+ * here rather than in the middle of the migration.
+ */
+@Component
+public class GateMigrationPlaceholders implements FlywayConfigurationCustomizer {
+
+    private final Duration turnaroundBefore;
+    private final Duration turnaroundAfter;
+    private final GateConflictPolicy policy;
+
+    public GateMigrationPlaceholders(@Value("${flight.gates.turnaround-before:45m}") Duration turnaroundBefore,
+                                     @Value("${flight.gates.turnaround-after:15m}") Duration turnaroundAfter,
+                                     @Value("${flight.gates.on-conflict:REJECT}") GateConflictPolicy policy) {
+        this.turnaroundBefore = turnaroundBefore;
+        this.turnaroundAfter = turnaroundAfter;
+        this.policy = policy;
+    }
+
+    @Override
+    public void customize(FluentConfiguration configuration) {
+        Map<String, String> placeholders = new HashMap<>(configuration.getPlaceholders());
+        placeholders.put("gate_on_conflict", policy.name());
+        placeholders.put("gate_turnaround_before", interval("flight.gates.turnaround-before", turnaroundBefore));
+        placeholders.put("gate_turnaround_after", interval("flight.gates.turnaround-after", turnaroundAfter));
+        configuration.placeholders(placeholders);
+    }
+
+    static String interval(String property, Duration duration) {
+        if (duration.isNegative() || duration.getNano() != 0) {
+            throw new IllegalStateException(property + " must be a non-negative whole number of seconds, got " + duration);
+        }
+        return duration.getSeconds() + " seconds";
+    }
+}
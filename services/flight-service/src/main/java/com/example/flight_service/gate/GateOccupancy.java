@@ -0,0 +1,13 @@
+package com.example.flight_service.gate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time a flight holds its gate: [from, to) around the departure, turnaround buffers included.
+ */
+public record GateOccupancy(Long flightId,
+                            String flightNumber,
+                            String gate,
+                            LocalDateTime from,
+                            LocalDateTime to) {
+}
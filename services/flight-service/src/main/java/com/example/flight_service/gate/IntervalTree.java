@@ -0,0 +1,183 @@
+package com.example.flight_service.gate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Half-open time intervals [start, end) in an AVL tree ordered by (start, id), where each
+ * node also holds the latest end of its subtree. Insert and remove are O(log n); finding
+ * the intervals that overlap a window is O(log n + k) for k results. Not thread-safe.
+ */
+final class IntervalTree<T> {
+
+    private static final class Node<T> {
+        final LocalDateTime start;
+        final long id;
+        LocalDateTime end;
+        T value;
+        LocalDateTime maxEnd;
+        int height = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(LocalDateTime start, LocalDateTime end, long id, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<T> root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /** Adds the interval, or replaces the one with the same start and id. */
+    void insert(long id, LocalDateTime start, LocalDateTime end, T value) {
+        root = insert(root, new Node<>(start, end, id, value));
+    }
+
+    /** Removes the interval with this start and id; returns false if absent. */
+    boolean remove(long id, LocalDateTime start) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /** Values whose interval overlaps [start, end), in start order, except the one with excludeId. */
+    List<T> overlapping(LocalDateTime start, LocalDateTime end, Long excludeId) {
+        List<T> result = new ArrayList<>();
+        collect(root, start, end, excludeId, result);
+        return result;
+    }
+
+    private void collect(Node<T> node, LocalDateTime start, LocalDateTime end, Long excludeId, List<T> result) {
+        // Nothing in this subtree ends after start
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return;
+        }
+        collect(node.left, start, end, excludeId, result);
+        if (node.start.isBefore(end)) {
+            if (node.end.isAfter(start) && (excludeId == null || node.id != excludeId)) {
+                result.add(node.value);
+            }
+            // The right subtree starts at or after node.start, so only useful before end
+            collect(node.right, start, end, excludeId, result);
+        }
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            size++;
+            return added;
+        }
+        int order = compare(added.start, added.id, node);
+        if (order < 0) {
+            node.left = insert(node.left, added);
+        } else if (order > 0) {
+            node.right = insert(node.right, added);
+        } else {
+            node.end = added.end;
+            node.value = added.value;
+        }
+        return balance(node);
+    }
+
+    private Node<T> remove(Node<T> node, LocalDateTime start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(start, id, node);
+        if (order < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (order > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private Node<T> balance(Node<T> node) {
+        update(node);
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int compare(LocalDateTime start, long id, Node<?> node) {
+        int order = start.compareTo(node.start);
+        return order != 0 ? order : Long.compare(id, node.id);
+    }
+}
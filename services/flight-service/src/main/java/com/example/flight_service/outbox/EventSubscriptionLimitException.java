@@ -0,0 +1,11 @@
+package com.example.flight_service.outbox;
+
+/**
+ * Too many open event streams on this instance; mapped to 503 Service Unavailable.
+ */
+public class EventSubscriptionLimitException extends RuntimeException {
+
+    public EventSubscriptionLimitException(String message) {
+        super(message);
+    }
+}
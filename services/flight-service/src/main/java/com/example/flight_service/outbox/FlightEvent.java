@@ -0,0 +1,26 @@
+package com.example.flight_service.outbox;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * A flight change as stored in the outbox. offset orders events across all flights;
+ * flightVersion is the flight's version after the change (null for deletions). payload is the
+ * flight as returned by the API (CREATED, UPDATED), the changed fields (PATCHED) or its id
+ * and number (DELETED), kept as stored JSON. origin identifies the instance that appended it
+ * and is not sent to consumers.
+ */
+public record FlightEvent(long offset,
+                          FlightEventType type,
+                          Long flightId,
+                          Long flightVersion,
+                          LocalDateTime occurredAt,
+                          @JsonRawValue String payload,
+                          @JsonIgnore String origin) {
+
+    /** An event to append; offset and time are assigned by the database. */
+    public record Pending(FlightEventType type, Long flightId, Long flightVersion, Object payload) {
+    }
+}
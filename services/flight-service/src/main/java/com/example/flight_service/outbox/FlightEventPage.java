@@ -0,0 +1,7 @@
+package com.example.flight_service.outbox;
+
+import java.util.List;
+
+/** Events after a given offset; nextOffset is the value to pass as after for the next page. */
+public record FlightEventPage(List<FlightEvent> events, long nextOffset) {
+}
@@ -0,0 +1,396 @@
+package com.example.flight_service.outbox;
+
+import com.example.flight_service.repository.FlightCache;
+import com.example.flight_service.sse.SseStream;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Relays the outbox to Server-Sent Event streams.
+ * <p>
+ * One poll per interval reads the events appended since the last one (a primary key range
+ * scan of flight_events, whatever the number of consumers), keeps the most recent in memory
+ * and sends each new batch, serialized once, to every live stream as an "events" message
+ * whose id is the offset of its last event. A stream resuming from an older offset (after
+ * parameter or Last-Event-ID) is first fed from the table in pages on a catch-up thread, then
+ * handed to the sender thread, which sends what it buffered since and adds it to the live
+ * streams. Each stream tracks the offset it has sent, so it gets every event once and in order.
+ * <p>
+ * Neither thread writes to clients: they queue messages on each stream ({@link SseStream}),
+ * and writer threads send them. A live stream that falls max-queued messages behind is
+ * disconnected and resumes with Last-Event-ID; the catch-up reads no further ahead of a
+ * client than half its queue. An offset older than the retention is answered with a "reset"
+ * message before the oldest events kept.
+ */
+@Component
+@Slf4j
+public class FlightEventRelay {
+
+    private static final int CATCH_UP_THREADS = 2;
+    // Tasks waiting for the sender thread; past that, the poll reads its batch again next time
+    private static final int FAN_OUT_QUEUE = 10_000;
+
+    private static final class Subscription {
+        final SseStream stream;
+        // Owned by the catch-up thread until handed over, then by the sender thread
+        long offset;
+        boolean live;
+
+        Subscription(SseStream stream) {
+            this.stream = stream;
+        }
+    }
+
+    private final FlightOutbox outbox;
+    private final FlightCache flightCache;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sender;
+    private final ScheduledExecutorService catchUp;
+    private final ExecutorService writers;
+    private final Map<SseStream, Subscription> subscriptions = new ConcurrentHashMap<>();
+    // Open streams, counted from the request so that concurrent subscribes cannot pass the limit
+    private final AtomicInteger open = new AtomicInteger();
+    private final int batchSize;
+    private final int bufferSize;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final Duration streamTimeout;
+    private final int maxSubscribers;
+    private final int maxQueued;
+    private final Counter relayed;
+    private final Counter overflows;
+    private final Counter resets;
+    private final Timer fanOut;
+
+    // Poll thread only; negative until the head of the outbox has been read
+    private long polledOffset = -1;
+
+    // Sender thread only: the buffer holds every event in (bufferFloor, last buffered]
+    private final Deque<FlightEvent> buffer = new ArrayDeque<>();
+    private long bufferFloor = Long.MAX_VALUE;
+
+    public FlightEventRelay(FlightOutbox outbox,
+                            FlightCache flightCache,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${flight.events.batch-size:500}") int batchSize,
+                            @Value("${flight.events.buffer-size:10000}") int bufferSize,
+                            @Value("${flight.events.poll-interval:500}") Duration pollInterval,
+                            @Value("${flight.events.retention:7d}") Duration retention,
+                            @Value("${flight.events.stream-timeout:30m}") Duration streamTimeout,
+                            @Value("${flight.events.max-subscribers:1000}") int maxSubscribers,
+                            @Value("${flight.events.max-queued:64}") int maxQueued,
+                            @Value("${flight.events.writer-threads:4}") int writerThreads) {
+        this.outbox = outbox;
+        this.flightCache = flightCache;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.bufferSize = bufferSize;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.streamTimeout = streamTimeout;
+        this.maxSubscribers = maxSubscribers;
+        this.maxQueued = maxQueued;
+        this.sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(FAN_OUT_QUEUE), runnable -> {
+                    Thread thread = new Thread(runnable, "flight-events-sse");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.catchUp = Executors.newScheduledThreadPool(CATCH_UP_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "flight-events-catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // At most one drain task per stream is queued
+        this.writers = SseStream.writerPool("flight-events-writer", writerThreads, maxSubscribers);
+        this.relayed = Counter.builder("flight.events.relayed")
+                .description("Outbox events read by the relay")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("flight.events.overflows")
+                .description("Event streams closed for falling too far behind")
+                .register(meterRegistry);
+        this.resets = Counter.builder("flight.events.resets")
+                .description("Streams resumed from an offset older than the retention")
+                .register(meterRegistry);
+        this.fanOut = Timer.builder("flight.events.fanout")
+                .description("Time to queue one batch of flight events for every stream")
+                .register(meterRegistry);
+        Gauge.builder("flight.events.subscribers", open, AtomicInteger::get)
+                .description("Open flight event streams")
+                .register(meterRegistry);
+    }
+
+    /** Events after the offset, read from the outbox; for consumers that pull instead of streaming. */
+    public FlightEventPage page(long after, int limit) {
+        List<FlightEvent> events = outbox.read(after, Math.min(Math.max(limit, 1), batchSize));
+        return new FlightEventPage(events, events.isEmpty() ? after : events.get(events.size() - 1).offset());
+    }
+
+    /** Opens a stream of the events after the offset, or of the events to come when it is null. */
+    public SseEmitter subscribe(Long after) {
+        if (open.incrementAndGet() > maxSubscribers) {
+            open.decrementAndGet();
+            throw new EventSubscriptionLimitException("Too many flight event streams, retry later");
+        }
+        SseStream stream = new SseStream(newEmitter(streamTimeout), maxQueued, writers, closed -> {
+            open.decrementAndGet();
+            subscriptions.remove(closed);
+        }, overflows::increment);
+        Subscription subscription = new Subscription(stream);
+        subscriptions.put(stream, subscription);
+        catchUp.execute(() -> {
+            try {
+                if (start(subscription, after)) {
+                    catchUp(subscription);
+                }
+            } catch (DataAccessException e) {
+                drop(subscription, e);
+            }
+        });
+        return stream.emitter();
+    }
+
+    @Scheduled(fixedDelayString = "${flight.events.poll-interval:500}")
+    public void poll() {
+        try {
+            if (polledOffset < 0) {
+                long head = outbox.latestOffset();
+                if (execute(() -> bufferFloor = head)) {
+                    polledOffset = head;
+                }
+                return;
+            }
+            List<FlightEvent> events;
+            do {
+                events = outbox.read(polledOffset, batchSize);
+                if (!events.isEmpty()) {
+                    List<FlightEvent> batch = events;
+                    if (!execute(() -> fanOut.record(() -> relay(batch)))) {
+                        return;
+                    }
+                    polledOffset = events.get(events.size() - 1).offset();
+                    relayed.increment(events.size());
+                    // Writes of this instance already updated its cache; those of the others did not
+                    flightCache.evict(events.stream()
+                            .filter(event -> !outbox.isOwn(event))
+                            .map(FlightEvent::flightId)
+                            .collect(Collectors.toSet()));
+                }
+            } while (events.size() == batchSize);
+        } catch (DataAccessException e) {
+            log.warn("Flight event poll failed, retrying at the next interval: {}", e.getMessage());
+        }
+    }
+
+    // Comment lines keep proxies from closing idle streams and reveal dead clients
+    @Scheduled(fixedDelayString = "${flight.events.heartbeat-interval:15000}")
+    public void heartbeat() {
+        execute(() -> subscriptions.values().forEach(subscription -> {
+            if (subscription.live) {
+                subscription.stream.offer(SseEmitter.event().comment("keep-alive"));
+            }
+        }));
+    }
+
+    @Scheduled(fixedDelayString = "${flight.events.purge-interval:3600000}")
+    public void purge() {
+        try {
+            int purged = outbox.purge(LocalDateTime.now().minus(retention));
+            if (purged > 0) {
+                log.info("Purged {} flight events older than {}", purged, retention);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Flight event purge failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        catchUp.shutdownNow();
+        sender.shutdownNow();
+        subscriptions.keySet().forEach(SseStream::complete);
+        writers.shutdown();
+    }
+
+    // Overridden by tests to record what each stream is sent
+    SseEmitter newEmitter(Duration timeout) {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    // Catch-up thread: sets the offset the stream starts from. The events after an offset
+    // older than the oldest one kept were purged; the client is told with a "reset" carrying
+    // the requested and earliest offsets, and the stream goes on from the earliest.
+    private boolean start(Subscription subscription, Long after) {
+        if (after == null) {
+            subscription.offset = outbox.latestOffset();
+            return true;
+        }
+        long earliest = outbox.earliestOffset();
+        if (after >= earliest - 1) {
+            subscription.offset = after;
+            return true;
+        }
+        resets.increment();
+        subscription.offset = earliest - 1;
+        // Its id makes a reconnect resume after the reset rather than ask for it again
+        return subscription.stream.offer(SseEmitter.event()
+                .name("reset")
+                .id(Long.toString(earliest - 1))
+                .data(toJson(Map.of("requestedOffset", after, "earliestOffset", earliest))));
+    }
+
+    // Catch-up thread: pages through the outbox up to its current end, then asks for the
+    // handover. A client still reading earlier pages is given a poll interval before the next.
+    private void catchUp(Subscription subscription) {
+        List<FlightEvent> events;
+        do {
+            if (!subscription.stream.isOpen()) {
+                return;
+            }
+            if (subscription.stream.backlog() >= Math.max(1, maxQueued / 2)) {
+                scheduleCatchUp(subscription);
+                return;
+            }
+            events = outbox.read(subscription.offset, batchSize);
+            if (!events.isEmpty()) {
+                if (!subscription.stream.offer(batch(events))) {
+                    return;
+                }
+                subscription.offset = events.get(events.size() - 1).offset();
+            }
+        } while (events.size() == batchSize);
+        if (!execute(() -> handOver(subscription))) {
+            scheduleCatchUp(subscription);
+        }
+    }
+
+    private void scheduleCatchUp(Subscription subscription) {
+        catchUp.schedule(() -> {
+            try {
+                catchUp(subscription);
+            } catch (DataAccessException e) {
+                drop(subscription, e);
+            }
+        }, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Sender thread: the buffer must reach back to the stream's offset, otherwise the relay is
+    // behind (or just started) and the catch-up goes on after a poll interval
+    private void handOver(Subscription subscription) {
+        if (!subscription.stream.isOpen()) {
+            return;
+        }
+        if (subscription.offset < bufferFloor) {
+            scheduleCatchUp(subscription);
+            return;
+        }
+        List<FlightEvent> missed = new ArrayList<>();
+        for (FlightEvent event : buffer) {
+            if (event.offset() > subscription.offset) {
+                missed.add(event);
+            }
+        }
+        if (!missed.isEmpty()) {
+            if (!subscription.stream.offer(batch(missed))) {
+                return;
+            }
+            subscription.offset = missed.get(missed.size() - 1).offset();
+        }
+        subscription.live = true;
+    }
+
+    // Sender thread
+    private void relay(List<FlightEvent> events) {
+        for (FlightEvent event : events) {
+            buffer.addLast(event);
+        }
+        while (buffer.size() > bufferSize) {
+            bufferFloor = buffer.removeFirst().offset();
+        }
+        long last = events.get(events.size() - 1).offset();
+        String whole = null;
+        for (Subscription subscription : subscriptions.values()) {
+            if (!subscription.live || subscription.offset >= last) {
+                continue;
+            }
+            String json;
+            if (subscription.offset < events.get(0).offset()) {
+                if (whole == null) {
+                    whole = toJson(events);
+                }
+                json = whole;
+            } else {
+                // The catch-up read part of this batch straight from the table
+                json = toJson(events.stream().filter(event -> event.offset() > subscription.offset).toList());
+            }
+            if (subscription.stream.offer(batch(last, json))) {
+                subscription.offset = last;
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder batch(List<FlightEvent> events) {
+        return batch(events.get(events.size() - 1).offset(), toJson(events));
+    }
+
+    // A new builder per stream: a built event cannot be sent twice
+    private static SseEmitter.SseEventBuilder batch(long lastOffset, String json) {
+        return SseEmitter.event().name("events").id(Long.toString(lastOffset)).data(json);
+    }
+
+    // A full sender queue means the thread is stuck; the caller retries later
+    private boolean execute(Runnable task) {
+        try {
+            sender.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (!sender.isShutdown()) {
+                log.warn("Flight event fan-out queue full, retrying at the next interval");
+            }
+            return false;
+        }
+    }
+
+    private void drop(Subscription subscription, Exception e) {
+        subscription.stream.complete();
+        log.debug("Dropped flight event subscriber: {}", e.getMessage());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize flight events", e);
+        }
+    }
+}
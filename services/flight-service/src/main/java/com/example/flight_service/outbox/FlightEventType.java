@@ -0,0 +1,9 @@
+package com.example.flight_service.outbox;
+
+public enum FlightEventType {
+    CREATED,
+    UPDATED,
+    // Status and/or gate change through the fast path: the payload holds only those fields
+    PATCHED,
+    DELETED
+}
@@ -0,0 +1,123 @@
+package com.example.flight_service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outbox of flight changes, the flight_events table.
+ * <p>
+ * Writers append in the transaction that changes the flight, so an event exists exactly when
+ * its change was committed. Appends first take a transaction-scoped advisory lock: offsets
+ * (the BIGSERIAL id) are then drawn and committed one transaction at a time, and a reader
+ * that has seen offset n will never see a smaller one appear later. The lock is held from the
+ * append to the commit, which is why appends come last in a transaction.
+ */
+@Component
+public class FlightOutbox {
+
+    // Arbitrary key of the advisory lock serializing appends
+    private static final long APPEND_LOCK = 0x464c494748545356L;
+
+    private static final RowMapper<FlightEvent> EVENT_MAPPER = (row, rowNum) -> new FlightEvent(
+            row.getLong("id"),
+            FlightEventType.valueOf(row.getString("event_type")),
+            row.getLong("flight_id"),
+            row.getObject("flight_version", Long.class),
+            row.getObject("created_at", LocalDateTime.class),
+            row.getString("payload"),
+            row.getString("origin"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter appended;
+    // Tags the events of this instance; a restarted instance has a new one
+    private final String origin = UUID.randomUUID().toString();
+
+    public FlightOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.appended = Counter.builder("flight.events.appended")
+                .description("Flight change events written to the outbox")
+                .register(meterRegistry);
+    }
+
+    public void append(FlightEventType type, Long flightId, Long flightVersion, Object payload) {
+        appendAll(List.of(new FlightEvent.Pending(type, flightId, flightVersion, payload)));
+    }
+
+    /** Appends the events in order, as one JDBC batch. Must run inside the writing transaction. */
+    public void appendAll(List<FlightEvent.Pending> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Flight events must be appended inside the transaction of the change");
+        }
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (FlightEvent.Pending event : events) {
+            rows.add(new Object[] {event.type().name(), event.flightId(), event.flightVersion(), toJson(event.payload()),
+                    origin});
+        }
+        // Released at commit or rollback
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", row -> {
+        }, APPEND_LOCK);
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO flight_events (event_type, flight_id, flight_version, payload, origin)
+                VALUES (?, ?, ?, ?::jsonb, ?)
+                """, rows, new int[] {Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR});
+        appended.increment(events.size());
+    }
+
+    /** Up to limit events with an offset above after, in offset order. */
+    public List<FlightEvent> read(long after, int limit) {
+        return jdbcTemplate.query("""
+                SELECT id, event_type, flight_id, flight_version, payload, created_at, origin
+                FROM flight_events
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """, EVENT_MAPPER, after, limit);
+    }
+
+    /** Whether this instance appended the event. */
+    public boolean isOwn(FlightEvent event) {
+        return origin.equals(event.origin());
+    }
+
+    /** Offset of the last event written, 0 when there is none. */
+    public long latestOffset() {
+        Long latest = jdbcTemplate.queryForObject("SELECT MAX(id) FROM flight_events", Long.class);
+        return latest != null ? latest : 0;
+    }
+
+    /** Offset of the oldest event kept, 0 when there is none; older ones were purged. */
+    public long earliestOffset() {
+        Long earliest = jdbcTemplate.queryForObject("SELECT MIN(id) FROM flight_events", Long.class);
+        return earliest != null ? earliest : 0;
+    }
+
+    /** Deletes events written before the given time; returns how many were removed. */
+    public int purge(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM flight_events WHERE created_at < ?", before);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize flight event", e);
+        }
+    }
+}
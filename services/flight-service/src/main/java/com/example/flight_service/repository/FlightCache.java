@@ -0,0 +1,117 @@
+package com.example.flight_service.repository;
+
+import com.example.flight_service.entity.Flight;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.CollectionDataAccess;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Second-level cache upkeep for changes Hibernate did not make itself.
+ * <p>
+ * Writes through the entity keep the cached flights and crews current, and invalidate the
+ * cached finder results by table. The SQL fast path of {@link FlightFastUpdates} and writes
+ * made by other instances (seen through the outbox) are not, so they go through here.
+ * Evicting after the change is not enough: a load that read the old row before the commit
+ * could put it back right after the eviction, to be served until it expires. Each flight's
+ * entry is therefore replaced by a soft lock, as Hibernate does for its own updates; once
+ * released, it refuses the entries of sessions started before the release.
+ */
+@Component
+public class FlightCache {
+
+    public static final String BY_STATUS_REGION = "flights-by-status";
+    public static final String BY_AIRLINE_REGION = "flights-by-airline";
+
+    private static final String CREW_REGION = Flight.class.getName() + ".crew";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final EntityManager entityManager;
+    private final Cache cache;
+    private final EntityPersister persister;
+    private final CollectionPersister crewPersister;
+    private final String[] querySpaces;
+
+    public FlightCache(EntityManagerFactory entityManagerFactory, EntityManager entityManager) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.entityManager = entityManager;
+        this.cache = sessionFactory.getCache();
+        this.persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(Flight.class);
+        this.crewPersister = sessionFactory.getMappingMetamodel().getCollectionDescriptor(CREW_REGION);
+        this.querySpaces = Arrays.stream(persister.getQuerySpaces()).map(String::valueOf).toArray(String[]::new);
+    }
+
+    /**
+     * For a SQL update of the flights in the current transaction; call it before the update.
+     * Their entries stay locked, and the cached finder results invalid, until the transaction
+     * completes, as for an update made through Hibernate.
+     */
+    public void lockForUpdate(Collection<Long> flightIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Flight cache entries can only be locked inside a transaction");
+        }
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (flightIds.isEmpty() || access == null) {
+            return;
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        TimestampsCache timestamps = cache.getTimestampsCache();
+        timestamps.preInvalidate(querySpaces, session);
+        List<Object> keys = new ArrayList<>(flightIds.size());
+        List<SoftLock> locks = new ArrayList<>(flightIds.size());
+        for (Long id : flightIds) {
+            Object key = access.generateCacheKey(id, persister, sessionFactory, session.getTenantIdentifier());
+            keys.add(key);
+            locks.add(access.lockItem(session, key, null));
+        }
+        // Committed or not, the next loads read the rows again
+        session.getActionQueue().registerProcess((success, completed) -> {
+            for (int i = 0; i < keys.size(); i++) {
+                access.unlockItem(completed, keys.get(i), locks.get(i));
+            }
+            timestamps.invalidate(querySpaces, completed);
+        });
+    }
+
+    /** For flights and crews already changed and committed elsewhere, e.g. by another instance. */
+    public void evict(Collection<Long> flightIds) {
+        if (flightIds.isEmpty()) {
+            return;
+        }
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        CollectionDataAccess crewAccess = crewPersister.getCacheAccessStrategy();
+        try (Session session = sessionFactory.openSession()) {
+            SharedSessionContractImplementor implementor = (SharedSessionContractImplementor) session;
+            String tenant = implementor.getTenantIdentifier();
+            // Locked and released at once: loads that may have read the old rows cannot store them
+            for (Long id : flightIds) {
+                if (access != null) {
+                    Object key = access.generateCacheKey(id, persister, sessionFactory, tenant);
+                    access.unlockItem(implementor, key, access.lockItem(implementor, key, null));
+                }
+                if (crewAccess != null) {
+                    Object key = crewAccess.generateCacheKey(id, crewPersister, sessionFactory, tenant);
+                    crewAccess.unlockItem(implementor, key, crewAccess.lockItem(implementor, key, null));
+                }
+            }
+        }
+        cache.evictQueryRegion(BY_STATUS_REGION);
+        cache.evictQueryRegion(BY_AIRLINE_REGION);
+    }
+}
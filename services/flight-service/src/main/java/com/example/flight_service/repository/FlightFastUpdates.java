@@ -0,0 +1,27 @@
+package com.example.flight_service.repository;
+
+import com.example.flight_service.entity.FlightStatus;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Status and gate changes as single conditional UPDATE statements, without loading the
+ * flight. The version is bumped on every update.
+ */
+public interface FlightFastUpdates {
+
+    /**
+     * Sets the non-null fields of the flight. Returns the new version, or empty when the
+     * flight does not exist or its version is no longer expectedVersion. A null expected
+     * version skips the check; only the legacy PUT /{id}/status sends one.
+     */
+    Optional<Long> updateStatusAndGate(Long id, Long expectedVersion, FlightStatus status, String gate);
+
+    /**
+     * Sets the status of every flight of expectedVersions (id to expected version) in one
+     * statement. Returns the new version of each flight updated; missing or
+     * stale flights are absent.
+     */
+    Map<Long, Long> updateStatuses(Map<Long, Long> expectedVersions, FlightStatus status);
+}
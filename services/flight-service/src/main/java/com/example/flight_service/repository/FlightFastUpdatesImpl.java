@@ -0,0 +1,66 @@
+package com.example.flight_service.repository;
+
+import com.example.flight_service.entity.FlightStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// RETURNING gives back the new version in the same round trip as the update. The cached
+// flights are locked first, until the transaction completes (see FlightCache).
+@RequiredArgsConstructor
+class FlightFastUpdatesImpl implements FlightFastUpdates {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FlightCache flightCache;
+
+    @Override
+    public Optional<Long> updateStatusAndGate(Long id, Long expectedVersion, FlightStatus status, String gate) {
+        flightCache.lockForUpdate(List.of(id));
+        List<Long> versions = jdbcTemplate.query("""
+                UPDATE flights
+                SET status = COALESCE(?, status), gate = COALESCE(?, gate),
+                    version = version + 1, updated_at = ?
+                WHERE id = ? AND version = COALESCE(?, version)
+                RETURNING version
+                """, statement -> {
+            statement.setObject(1, status != null ? status.name() : null, Types.VARCHAR);
+            statement.setObject(2, gate, Types.VARCHAR);
+            statement.setObject(3, LocalDateTime.now());
+            statement.setLong(4, id);
+            statement.setObject(5, expectedVersion, Types.BIGINT);
+        }, (row, rowNum) -> row.getLong(1));
+        return versions.stream().findFirst();
+    }
+
+    @Override
+    public Map<Long, Long> updateStatuses(Map<Long, Long> expectedVersions, FlightStatus status) {
+        Map<Long, Long> updated = new LinkedHashMap<>();
+        if (expectedVersions.isEmpty()) {
+            return updated;
+        }
+        flightCache.lockForUpdate(expectedVersions.keySet());
+        Long[] ids = expectedVersions.keySet().toArray(Long[]::new);
+        Long[] versions = expectedVersions.values().toArray(Long[]::new);
+        jdbcTemplate.query("""
+                UPDATE flights f
+                SET status = ?, version = f.version + 1, updated_at = ?
+                FROM unnest(?::bigint[], ?::bigint[]) AS expected(id, version)
+                WHERE f.id = expected.id AND f.version = expected.version
+                RETURNING f.id, f.version
+                """, statement -> {
+            statement.setString(1, status.name());
+            statement.setObject(2, LocalDateTime.now());
+            statement.setArray(3, statement.getConnection().createArrayOf("bigint", ids));
+            statement.setArray(4, statement.getConnection().createArrayOf("bigint", versions));
+        }, row -> {
+            updated.put(row.getLong(1), row.getLong(2));
+        });
+        return updated;
+    }
+}
@@ -2,22 +2,37 @@ package com.example.flight_service.repository;
 
 import com.example.flight_service.entity.Flight;
 import com.example.flight_service.entity.FlightStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FlightRepository extends JpaRepository<Flight, Long> {
+public interface FlightRepository extends JpaRepository<Flight, Long>, FlightFastUpdates {
     
     Optional<Flight> findByFlightNumber(String flightNumber);
     
+    // Cached results (ids of the flights, read from the entity cache); Hibernate drops them
+    // on any write to flights, FlightCache on the writes it does not see
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = FlightCache.BY_STATUS_REGION)
+    })
     List<Flight> findByStatus(FlightStatus status);
     
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = FlightCache.BY_AIRLINE_REGION)
+    })
     List<Flight> findByAirline(String airline);
     
     List<Flight> findByOrigin(String origin);
@@ -32,4 +47,73 @@ public interface FlightRepository extends JpaRepository<Flight, Long> {
     List<Flight> findActiveFlightsByGate(@Param("gate") String gate);
     
     boolean existsByFlightNumber(String flightNumber);
+    
+    @Query("SELECT f.version FROM Flight f WHERE f.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT f.flightNumber FROM Flight f WHERE f.flightNumber IN :flightNumbers")
+    List<String> findExistingFlightNumbers(@Param("flightNumbers") Collection<String> flightNumbers);
+    
+    // Flights holding a gate (anything but cancelled) departing in [from, to)
+    @Query("""
+            SELECT f.id AS id, f.flightNumber AS flightNumber, f.gate AS gate, f.departureTime AS departureTime
+            FROM Flight f
+            WHERE f.departureTime >= :from AND f.departureTime < :to AND f.status <> 'CANCELLED'
+            """)
+    List<GateSlot> findGateSlots(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("""
+            SELECT f.id AS id, f.flightNumber AS flightNumber, f.gate AS gate, f.departureTime AS departureTime
+            FROM Flight f
+            WHERE f.departureTime >= :from AND f.status <> 'CANCELLED'
+            """)
+    List<GateSlot> findGateSlotsFrom(@Param("from") LocalDateTime from);
+    
+    // Slots the given flights get back if un-cancelled; flights not cancelled are left out
+    @Query("""
+            SELECT f.id AS id, f.flightNumber AS flightNumber, f.gate AS gate, f.departureTime AS departureTime
+            FROM Flight f
+            WHERE f.id IN :ids AND f.status = 'CANCELLED'
+            """)
+    List<GateSlot> findCancelledGateSlots(@Param("ids") Collection<Long> ids);
+    
+    // Flights of a staff member: a range of the (staff_id, departure_time) index of flight_crew,
+    // joined to flights by id
+    @Query("""
+            SELECT f FROM Flight f JOIN f.crew c
+            WHERE c.staffId = :staffId AND c.departureTime >= :from AND c.departureTime < :to
+            ORDER BY c.departureTime, f.id
+            """)
+    List<Flight> findByCrewMember(@Param("staffId") String staffId,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to,
+                                  Limit limit);
+    
+    // Keyset page ordered by (departureTime, id): the row comparison continues strictly after
+    // the cursor, so a page costs the same at any depth. Null filters match everything.
+    @Query("""
+            SELECT f.id AS id, f.flightNumber AS flightNumber, f.airline AS airline,
+                   f.origin AS origin, f.destination AS destination,
+                   f.departureTime AS departureTime, f.arrivalTime AS arrivalTime,
+                   f.gate AS gate, f.status AS status, f.aircraftType AS aircraftType,
+                   f.passengerCount AS passengerCount, f.version AS version
+            FROM Flight f
+            WHERE (f.departureTime, f.id) > (:afterTime, :afterId)
+              AND (:to IS NULL OR f.departureTime < :to)
+              AND (:status IS NULL OR f.status = :status)
+              AND (:airline IS NULL OR f.airline = :airline)
+              AND (:origin IS NULL OR f.origin = :origin)
+              AND (:destination IS NULL OR f.destination = :destination)
+              AND (:gate IS NULL OR f.gate = :gate)
+            ORDER BY f.departureTime, f.id
+            """)
+    List<FlightSummary> findPage(@Param("afterTime") LocalDateTime afterTime,
+                                 @Param("afterId") Long afterId,
+                                 @Param("to") LocalDateTime to,
+                                 @Param("status") FlightStatus status,
+                                 @Param("airline") String airline,
+                                 @Param("origin") String origin,
+                                 @Param("destination") String destination,
+                                 @Param("gate") String gate,
+                                 Limit limit);
 } 
\ No newline at end of file
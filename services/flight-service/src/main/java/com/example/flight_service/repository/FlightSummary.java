@@ -0,0 +1,36 @@
+package com.example.flight_service.repository;
+
+import com.example.flight_service.entity.FlightStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * List-view columns of a flight. Selecting this projection skips the TEXT notes and the crew
+ * columns, which only the detail view needs.
+ */
+public interface FlightSummary {
+
+    Long getId();
+
+    String getFlightNumber();
+
+    String getAirline();
+
+    String getOrigin();
+
+    String getDestination();
+
+    LocalDateTime getDepartureTime();
+
+    LocalDateTime getArrivalTime();
+
+    String getGate();
+
+    FlightStatus getStatus();
+
+    String getAircraftType();
+
+    Integer getPassengerCount();
+
+    Long getVersion();
+}
@@ -0,0 +1,17 @@
+package com.example.flight_service.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns needed to place a flight on its gate's timeline.
+ */
+public interface GateSlot {
+
+    Long getId();
+
+    String getFlightNumber();
+
+    String getGate();
+
+    LocalDateTime getDepartureTime();
+}
@@ -0,0 +1,231 @@
+package com.example.flight_service.service;
+
+import com.example.flight_service.board.FlightBoard;
+import com.example.flight_service.dto.BulkCrewRequest;
+import com.example.flight_service.dto.BulkCrewResponse;
+import com.example.flight_service.dto.CrewAssignmentRequest;
+import com.example.flight_service.dto.CrewMember;
+import com.example.flight_service.dto.FlightCrewRequest;
+import com.example.flight_service.dto.FlightRequest;
+import com.example.flight_service.dto.FlightResponse;
+import com.example.flight_service.dto.FlightVersion;
+import com.example.flight_service.entity.CrewAssignment;
+import com.example.flight_service.entity.CrewRole;
+import com.example.flight_service.entity.Flight;
+import com.example.flight_service.outbox.FlightEvent;
+import com.example.flight_service.outbox.FlightEventType;
+import com.example.flight_service.outbox.FlightOutbox;
+import com.example.flight_service.repository.FlightRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Crew assignments, stored one row per staff member and flight (flight_crew).
+ * <p>
+ * Crew rows are saved through their flight, so a crew change is a flight change: it bumps
+ * the version, is written to the outbox as UPDATED and refreshed on the board. A staff member
+ * already on a flight keeps their row when their role changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CrewService {
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final FlightRepository flightRepository;
+    private final FlightBoard flightBoard;
+    private final FlightOutbox flightOutbox;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${flight.list.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${flight.list.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${flight.crew.bulk-max-size:1000}")
+    private int maxBulkSize;
+
+    /**
+     * Flights of a staff member departing in [from, to), in departure order. Read from the
+     * (staff_id, departure_time) index of flight_crew, then the flights by id.
+     */
+    public List<FlightResponse> getFlightsByCrewMember(String staffId, LocalDateTime from, LocalDateTime to, Integer limit) {
+        int size = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        return flightRepository.findByCrewMember(staffId, from != null ? from : EARLIEST, to != null ? to : LATEST,
+                        Limit.of(size)).stream()
+                .map(FlightService::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /** Adds or re-roles staff members on many flights; flights that do not exist are rejected. */
+    public BulkCrewResponse assignCrew(BulkCrewRequest request) {
+        if (request.getAssignments() == null || request.getAssignments().isEmpty()) {
+            throw new IllegalArgumentException("assignments are required");
+        }
+        if (request.getAssignments().size() > maxBulkSize) {
+            throw new IllegalArgumentException("At most " + maxBulkSize + " assignments per call");
+        }
+        Map<Long, List<CrewAssignmentRequest>> byFlight = new LinkedHashMap<>();
+        for (CrewAssignmentRequest assignment : request.getAssignments()) {
+            if (assignment.getFlightId() == null || isBlank(assignment.getStaffId()) || assignment.getRole() == null) {
+                throw new IllegalArgumentException("Each assignment needs a flightId, a staffId and a role");
+            }
+            byFlight.computeIfAbsent(assignment.getFlightId(), id -> new ArrayList<>()).add(assignment);
+        }
+
+        List<Flight> found = transactionTemplate.execute(status -> {
+            List<Flight> flights = flightRepository.findAllById(byFlight.keySet());
+            Map<Long, Long> versionsBefore = flights.stream()
+                    .collect(Collectors.toMap(Flight::getId, Flight::getVersion));
+            for (Flight flight : flights) {
+                for (CrewAssignmentRequest assignment : byFlight.get(flight.getId())) {
+                    assign(flight, assignment.getStaffId().trim(), assignment.getRole());
+                }
+            }
+            flightRepository.flush();
+            List<Flight> updated = flights.stream()
+                    .filter(flight -> !flight.getVersion().equals(versionsBefore.get(flight.getId())))
+                    .collect(Collectors.toList());
+            flightOutbox.appendAll(updated.stream()
+                    .map(flight -> new FlightEvent.Pending(FlightEventType.UPDATED, flight.getId(), flight.getVersion(),
+                            FlightService.mapToResponse(flight)))
+                    .collect(Collectors.toList()));
+            return flights;
+        });
+        flightBoard.upsertAll(found);
+
+        Set<Long> foundIds = found.stream().map(Flight::getId).collect(Collectors.toSet());
+        log.info("Assigned {} crew members on {} flights", request.getAssignments().size(), foundIds.size());
+        return BulkCrewResponse.builder()
+                .updated(found.stream()
+                        .map(flight -> new FlightVersion(flight.getId(), flight.getVersion()))
+                        .collect(Collectors.toList()))
+                .rejected(byFlight.keySet().stream()
+                        .filter(flightId -> !foundIds.contains(flightId))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    public FlightResponse replaceCrew(Long flightId, FlightCrewRequest request) {
+        if (request.getCrew() == null) {
+            throw new IllegalArgumentException("crew is required");
+        }
+        return changeCrew(flightId, request.getVersion(), flight -> replaceCrew(flight, request.getCrew()));
+    }
+
+    public FlightResponse unassign(Long flightId, String staffId) {
+        return changeCrew(flightId, null, flight -> {
+            if (!flight.getCrew().removeIf(member -> member.getStaffId().equals(staffId))) {
+                throw new RuntimeException("Staff member " + staffId + " is not on flight " + flightId);
+            }
+        });
+    }
+
+    private FlightResponse changeCrew(Long flightId, Long expectedVersion, Consumer<Flight> change) {
+        Flight flight = transactionTemplate.execute(status -> {
+            Flight current = flightRepository.findById(flightId)
+                    .orElseThrow(() -> new RuntimeException("Flight not found with id: " + flightId));
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                throw new FlightVersionConflictException("Flight " + flightId + " was modified since version "
+                        + expectedVersion, current.getVersion());
+            }
+            Long versionBefore = current.getVersion();
+            change.accept(current);
+            Flight saved = flightRepository.saveAndFlush(current);
+            if (!saved.getVersion().equals(versionBefore)) {
+                flightOutbox.append(FlightEventType.UPDATED, saved.getId(), saved.getVersion(),
+                        FlightService.mapToResponse(saved));
+            }
+            return saved;
+        });
+        flightBoard.upsert(flight);
+        log.info("Updated crew of flight {}: {} members", flight.getFlightNumber(), flight.getCrew().size());
+        return FlightService.mapToResponse(flight);
+    }
+
+    /**
+     * Crew of a create or update request: the whole crew when given, otherwise the members of
+     * each role whose former field is set (pilotId, coPilotId, crewMembers; blank clears it).
+     */
+    static void applyCrew(Flight flight, FlightRequest request) {
+        if (request.getCrew() != null) {
+            replaceCrew(flight, request.getCrew());
+            return;
+        }
+        if (request.getPilotId() != null) {
+            replaceRole(flight, CrewRole.PILOT, List.of(request.getPilotId()));
+        }
+        if (request.getCoPilotId() != null) {
+            replaceRole(flight, CrewRole.CO_PILOT, List.of(request.getCoPilotId()));
+        }
+        if (request.getCrewMembers() != null) {
+            replaceRole(flight, CrewRole.CABIN_CREW, Arrays.asList(request.getCrewMembers().split(",")));
+        }
+    }
+
+    private static void replaceCrew(Flight flight, List<CrewMember> crew) {
+        Set<String> staffIds = new HashSet<>();
+        for (CrewMember member : crew) {
+            if (member == null || isBlank(member.getStaffId()) || member.getRole() == null) {
+                throw new IllegalArgumentException("Each crew member needs a staffId and a role");
+            }
+            if (!staffIds.add(member.getStaffId().trim())) {
+                throw new IllegalArgumentException("Staff member " + member.getStaffId() + " is listed twice");
+            }
+        }
+        flight.getCrew().removeIf(member -> !staffIds.contains(member.getStaffId()));
+        crew.forEach(member -> assign(flight, member.getStaffId().trim(), member.getRole()));
+    }
+
+    private static void replaceRole(Flight flight, CrewRole role, List<String> staffIds) {
+        List<String> members = staffIds.stream()
+                .map(String::trim)
+                .filter(staffId -> !staffId.isEmpty())
+                .distinct()
+                .toList();
+        flight.getCrew().removeIf(member -> member.getRole() == role && !members.contains(member.getStaffId()));
+        members.forEach(staffId -> assign(flight, staffId, role));
+    }
+
+    // Reuses the row of a staff member already on the flight: removing and re-adding it in one
+    // flush would insert before deleting and hit the (flight_id, staff_id) unique key
+    private static void assign(Flight flight, String staffId, CrewRole role) {
+        for (CrewAssignment member : flight.getCrew()) {
+            if (member.getStaffId().equals(staffId)) {
+                if (member.getRole() != role) {
+                    member.setRole(role);
+                    // A changed row leaves the collection as is: touch the flight for its version
+                    flight.setUpdatedAt(LocalDateTime.now());
+                }
+                return;
+            }
+        }
+        flight.getCrew().add(CrewAssignment.builder()
+                .staffId(staffId)
+                .role(role)
+                .departureTime(flight.getDepartureTime())
+                .build());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.flight_service.service;
+
+import com.example.flight_service.board.FlightBoard;
+import com.example.flight_service.dto.FlightImportResult;
+import com.example.flight_service.dto.FlightImportSummary;
+import com.example.flight_service.dto.FlightRequest;
+import com.example.flight_service.entity.Flight;
+import com.example.flight_service.gate.GateAllocator;
+import com.example.flight_service.gate.GateConflictException;
+import com.example.flight_service.gate.GateOccupancy;
+import com.example.flight_service.outbox.FlightEvent;
+import com.example.flight_service.outbox.FlightEventType;
+import com.example.flight_service.outbox.FlightOutbox;
+import com.example.flight_service.repository.FlightRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk load of a flight schedule, read and answered as a stream.
+ * <p>
+ * Rows are parsed one line at a time and checked on their own (required fields, duplicate
+ * flight number within the import); valid rows are grouped into batches of
+ * flight.import.batch-size. Each batch looks up the flight numbers already stored in one
+ * query, goes through the gate timelines, and is inserted in one transaction with its CREATED
+ * events: sequence ids let Hibernate send the inserts as JDBC batches, which the driver
+ * rewrites into multi-row statements. If a batch still fails in the database, its rows are
+ * retried one by one so the faulty row can be reported. Only failed or flagged rows are
+ * written back, then a summary.
+ */
+@Service
+@Slf4j
+public class FlightImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private record Row(long line, FlightRequest request) {
+    }
+
+    private record Outcome(Flight flight, List<GateOccupancy> conflicts, String error) {
+    }
+
+    private static final class Progress {
+        long rows;
+        long imported;
+        long failed;
+    }
+
+    private final FlightRepository flightRepository;
+    private final GateAllocator gateAllocator;
+    private final FlightBoard flightBoard;
+    private final FlightOutbox flightOutbox;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter resultWriter;
+    private final int batchSize;
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public FlightImportService(FlightRepository flightRepository,
+                               GateAllocator gateAllocator,
+                               FlightBoard flightBoard,
+                               FlightOutbox flightOutbox,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${flight.import.batch-size:1000}") int batchSize) {
+        this.flightRepository = flightRepository;
+        this.gateAllocator = gateAllocator;
+        this.flightBoard = flightBoard;
+        this.flightOutbox = flightOutbox;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.resultWriter = objectMapper.writer();
+        this.batchSize = batchSize;
+        this.importedRows = Counter.builder("flight.import.rows")
+                .tag("outcome", "imported")
+                .description("Flight import rows")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("flight.import.rows")
+                .tag("outcome", "failed")
+                .description("Flight import rows")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports the rows of input and writes the results to output as NDJSON. CSV input starts
+     * with a header naming the FlightRequest fields; NDJSON has one FlightRequest per line.
+     */
+    public FlightImportSummary importFlights(InputStream input, Format format, OutputStream output) throws IOException {
+        long startedAt = System.nanoTime();
+        Progress progress = new Progress();
+        Set<String> seenFlightNumbers = new HashSet<>();
+        List<Row> batch = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = null;
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && header == null) {
+                header = parseCsvLine(text.startsWith("\uFEFF") ? text.substring(1) : text).stream()
+                        .map(String::trim).toList();
+                continue;
+            }
+            progress.rows++;
+            FlightRequest request;
+            try {
+                request = format == Format.CSV ? fromCsv(header, text) : objectMapper.readValue(text, FlightRequest.class);
+            } catch (JsonProcessingException e) {
+                fail(output, progress, line, null, "Unreadable row: " + e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                fail(output, progress, line, null, "Unreadable row: " + e.getMessage());
+                continue;
+            }
+            String error = validate(request);
+            if (error == null && !seenFlightNumbers.add(request.getFlightNumber())) {
+                error = "Duplicate flight number in the import";
+            }
+            if (error != null) {
+                fail(output, progress, line, request.getFlightNumber(), error);
+                continue;
+            }
+            batch.add(new Row(line, request));
+            if (batch.size() == batchSize) {
+                importBatch(batch, output, progress);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, output, progress);
+        }
+        FlightImportSummary summary = FlightImportSummary.builder()
+                .rows(progress.rows)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .elapsedMillis((System.nanoTime() - startedAt) / 1_000_000)
+                .build();
+        write(output, summary);
+        output.flush();
+        log.info("Imported {} of {} flights in {} ms", summary.getImported(), summary.getRows(), summary.getElapsedMillis());
+        return summary;
+    }
+
+    private void importBatch(List<Row> batch, OutputStream output, Progress progress) throws IOException {
+        Set<String> existing = new HashSet<>(flightRepository.findExistingFlightNumbers(
+                batch.stream().map(row -> row.request().getFlightNumber()).toList()));
+        List<Row> fresh = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            if (existing.contains(row.request().getFlightNumber())) {
+                fail(output, progress, row.line(), row.request().getFlightNumber(),
+                        "Flight with number " + row.request().getFlightNumber() + " already exists");
+            } else {
+                fresh.add(row);
+            }
+        }
+        List<Outcome> outcomes;
+        try {
+            List<GateAllocator.Allocation> allocations = gateAllocator.allocateAll(
+                    fresh.stream().map(row -> FlightService.newFlight(row.request())).toList(), this::saveBatch);
+            outcomes = allocations.stream()
+                    .map(allocation -> allocation.flight() != null
+                            ? new Outcome(allocation.flight(), allocation.conflicts(), null)
+                            : new Outcome(null, allocation.conflicts(), gateHeldMessage(allocation.conflicts())))
+                    .toList();
+        } catch (DataAccessException e) {
+            log.warn("Import batch of {} rows failed, saving them one by one: {}", fresh.size(),
+                    e.getMostSpecificCause().getMessage());
+            outcomes = saveOneByOne(fresh);
+        }
+        List<Flight> saved = new ArrayList<>(outcomes.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            Row row = fresh.get(i);
+            Outcome outcome = outcomes.get(i);
+            if (outcome.error() != null) {
+                fail(output, progress, row.line(), row.request().getFlightNumber(), outcome.error());
+                continue;
+            }
+            progress.imported++;
+            importedRows.increment();
+            saved.add(outcome.flight());
+            if (!outcome.conflicts().isEmpty()) {
+                write(output, FlightImportResult.builder()
+                        .line(row.line())
+                        .flightNumber(outcome.flight().getFlightNumber())
+                        .id(outcome.flight().getId())
+                        .gateConflicts(outcome.conflicts())
+                        .build());
+            }
+        }
+        flightBoard.upsertAll(saved);
+        output.flush();
+    }
+
+    private List<Flight> saveBatch(List<Flight> flights) {
+        return transactionTemplate.execute(status -> {
+            List<Flight> saved = flightRepository.saveAll(flights);
+            flightRepository.flush();
+            flightOutbox.appendAll(saved.stream()
+                    .map(flight -> new FlightEvent.Pending(FlightEventType.CREATED, flight.getId(), flight.getVersion(),
+                            FlightService.mapToResponse(flight)))
+                    .toList());
+            // One persistence context can outlive the whole import (open-in-view); keep it empty
+            entityManager.clear();
+            return saved;
+        });
+    }
+
+    private List<Outcome> saveOneByOne(List<Row> rows) {
+        List<Outcome> outcomes = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Flight candidate = FlightService.newFlight(row.request());
+            try {
+                GateAllocator.Allocation allocation = gateAllocator.allocate(candidate,
+                        () -> saveBatch(List.of(candidate)).get(0));
+                outcomes.add(new Outcome(allocation.flight(), allocation.conflicts(), null));
+            } catch (GateConflictException e) {
+                outcomes.add(new Outcome(null, e.getConflicts(), e.getMessage()));
+            } catch (DataAccessException e) {
+                outcomes.add(new Outcome(null, List.of(), e.getMostSpecificCause().getMessage()));
+            } finally {
+                entityManager.clear();
+            }
+        }
+        return outcomes;
+    }
+
+    private FlightRequest fromCsv(List<String> header, String text) {
+        List<String> values = parseCsvLine(text);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("expected " + header.size() + " columns, found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            if (!values.get(i).isBlank()) {
+                fields.put(header.get(i), values.get(i).trim());
+            }
+        }
+        return objectMapper.convertValue(fields, FlightRequest.class);
+    }
+
+    // RFC 4180 values on a single line: commas inside quotes, "" for a quote
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static String validate(FlightRequest request) {
+        if (isBlank(request.getFlightNumber())) {
+            return "flightNumber is required";
+        }
+        if (isBlank(request.getAirline()) || isBlank(request.getOrigin()) || isBlank(request.getDestination())
+                || isBlank(request.getGate()) || isBlank(request.getAircraftType())) {
+            return "airline, origin, destination, gate and aircraftType are required";
+        }
+        if (request.getDepartureTime() == null || request.getArrivalTime() == null) {
+            return "departureTime and arrivalTime are required";
+        }
+        if (!request.getArrivalTime().isAfter(request.getDepartureTime())) {
+            return "arrivalTime must be after departureTime";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String gateHeldMessage(List<GateOccupancy> conflicts) {
+        return "Gate " + conflicts.get(0).gate() + " is already held by "
+                + conflicts.stream().map(GateOccupancy::flightNumber).toList();
+    }
+
+    private void fail(OutputStream output, Progress progress, long line, String flightNumber, String error)
+            throws IOException {
+        progress.failed++;
+        failedRows.increment();
+        write(output, FlightImportResult.builder()
+                .line(line)
+                .flightNumber(flightNumber)
+                .error(error)
+                .build());
+    }
+
+    private void write(OutputStream output, Object value) throws IOException {
+        output.write(resultWriter.writeValueAsBytes(value));
+        output.write('\n');
+    }
+}
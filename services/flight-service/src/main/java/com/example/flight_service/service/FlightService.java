@@ -1,16 +1,47 @@
 package com.example.flight_service.service;
 
+import com.example.flight_service.board.FlightBoard;
+import com.example.flight_service.dto.BulkStatusRequest;
+import com.example.flight_service.dto.BulkStatusResponse;
+import com.example.flight_service.dto.CrewMember;
+import com.example.flight_service.dto.FlightCursor;
+import com.example.flight_service.dto.FlightFilter;
+import com.example.flight_service.dto.FlightPage;
+import com.example.flight_service.dto.FlightPatchRequest;
+import com.example.flight_service.dto.FlightPatchResponse;
 import com.example.flight_service.dto.FlightRequest;
 import com.example.flight_service.dto.FlightResponse;
 import com.example.flight_service.dto.FlightStatusRequest;
+import com.example.flight_service.dto.FlightVersion;
+import com.example.flight_service.entity.CrewAssignment;
+import com.example.flight_service.entity.CrewRole;
 import com.example.flight_service.entity.Flight;
 import com.example.flight_service.entity.FlightStatus;
+import com.example.flight_service.gate.GateAllocator;
+import com.example.flight_service.gate.GateConflictException;
+import com.example.flight_service.outbox.FlightEvent;
+import com.example.flight_service.outbox.FlightEventType;
+import com.example.flight_service.outbox.FlightOutbox;
 import com.example.flight_service.repository.FlightRepository;
+import com.example.flight_service.repository.FlightSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,12 +49,90 @@ import java.util.stream.Collectors;
 @Slf4j
 public class FlightService {
     
+    // Fields a list item can carry, in output order
+    private static final Map<String, Function<FlightSummary, Object>> LIST_FIELDS = listFields();
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
     private final FlightRepository flightRepository;
+    private final FlightBoard flightBoard;
+    private final GateAllocator gateAllocator;
+    private final FlightOutbox flightOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
     
-    public List<FlightResponse> getAllFlights() {
-        return flightRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    @Value("${flight.list.default-page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${flight.list.max-page-size:500}")
+    private int maxPageSize;
+    
+    @Value("${flight.status.bulk-max-size:1000}")
+    private int maxBulkStatusSize;
+    
+    /**
+     * Page of flights ordered by departure time then id, starting after the cursor (or at
+     * filter.from). Only the list columns are read; fields restricts each item further.
+     */
+    public FlightPage getFlightsPage(FlightFilter filter, String cursor, Integer limit, Set<String> fields) {
+        FlightFilter criteria = filter != null ? filter : new FlightFilter();
+        FlightCursor after = cursor != null && !cursor.isBlank()
+                ? FlightCursor.decode(cursor)
+                : new FlightCursor(criteria.getFrom() != null ? criteria.getFrom() : EARLIEST, Long.MIN_VALUE);
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : defaultPageSize, maxPageSize));
+        Map<String, Function<FlightSummary, Object>> selected = selectFields(fields);
+        
+        List<FlightSummary> rows = flightRepository.findPage(after.departureTime(), after.id(), criteria.getTo(),
+                criteria.getStatus(), criteria.getAirline(), criteria.getOrigin(), criteria.getDestination(),
+                criteria.getGate(), Limit.of(pageSize));
+        
+        List<Map<String, Object>> items = new ArrayList<>(rows.size());
+        for (FlightSummary row : rows) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            selected.forEach((name, accessor) -> item.put(name, accessor.apply(row)));
+            items.add(item);
+        }
+        String nextCursor = null;
+        if (rows.size() == pageSize) {
+            FlightSummary last = rows.get(rows.size() - 1);
+            nextCursor = new FlightCursor(last.getDepartureTime(), last.getId()).encode();
+        }
+        return FlightPage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    private static Map<String, Function<FlightSummary, Object>> selectFields(Set<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return LIST_FIELDS;
+        }
+        Map<String, Function<FlightSummary, Object>> selected = new LinkedHashMap<>();
+        LIST_FIELDS.forEach((name, accessor) -> {
+            if (fields.contains(name)) {
+                selected.put(name, accessor);
+            }
+        });
+        if (selected.size() != fields.size()) {
+            throw new IllegalArgumentException("Unknown fields requested, allowed: " + LIST_FIELDS.keySet());
+        }
+        return selected;
+    }
+    
+    private static Map<String, Function<FlightSummary, Object>> listFields() {
+        Map<String, Function<FlightSummary, Object>> fields = new LinkedHashMap<>();
+        fields.put("id", FlightSummary::getId);
+        fields.put("flightNumber", FlightSummary::getFlightNumber);
+        fields.put("airline", FlightSummary::getAirline);
+        fields.put("origin", FlightSummary::getOrigin);
+        fields.put("destination", FlightSummary::getDestination);
+        fields.put("departureTime", FlightSummary::getDepartureTime);
+        fields.put("arrivalTime", FlightSummary::getArrivalTime);
+        fields.put("gate", FlightSummary::getGate);
+        fields.put("status", FlightSummary::getStatus);
+        fields.put("aircraftType", FlightSummary::getAircraftType);
+        fields.put("passengerCount", FlightSummary::getPassengerCount);
+        fields.put("version", FlightSummary::getVersion);
+        return Collections.unmodifiableMap(fields);
     }
     
     public FlightResponse getFlightById(Long id) {
@@ -37,6 +146,18 @@ public class FlightService {
             throw new RuntimeException("Flight with number " + request.getFlightNumber() + " already exists");
         }
         
+        Flight flight = newFlight(request);
+        
+        GateAllocator.Allocation allocation = gateAllocator.allocate(flight,
+                () -> saveWithEvent(flight, FlightEventType.CREATED));
+        Flight savedFlight = allocation.flight();
+        flightBoard.upsert(savedFlight);
+        log.info("Created flight: {}", savedFlight.getFlightNumber());
+        return mapToResponse(allocation);
+    }
+    
+    // New entity from a request; a missing status means SCHEDULED
+    static Flight newFlight(FlightRequest request) {
         Flight flight = Flight.builder()
                 .flightNumber(request.getFlightNumber())
                 .airline(request.getAirline())
@@ -47,74 +168,240 @@ public class FlightService {
                 .gate(request.getGate())
                 .status(request.getStatus() != null ? request.getStatus() : FlightStatus.SCHEDULED)
                 .aircraftType(request.getAircraftType())
-                .pilotId(request.getPilotId())
-                .coPilotId(request.getCoPilotId())
-                .crewMembers(request.getCrewMembers())
                 .passengerCount(request.getPassengerCount())
                 .notes(request.getNotes())
                 .build();
-        
-        Flight savedFlight = flightRepository.save(flight);
-        log.info("Created flight: {}", savedFlight.getFlightNumber());
-        return mapToResponse(savedFlight);
+        CrewService.applyCrew(flight, request);
+        return flight;
     }
     
     public FlightResponse updateFlight(Long id, FlightRequest request) {
         Flight flight = flightRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Flight not found with id: " + id));
+        if (request.getVersion() != null && !request.getVersion().equals(flight.getVersion())) {
+            throw new FlightVersionConflictException("Flight " + id + " was modified since version "
+                    + request.getVersion(), flight.getVersion());
+        }
         
         flight.setFlightNumber(request.getFlightNumber());
         flight.setAirline(request.getAirline());
         flight.setOrigin(request.getOrigin());
         flight.setDestination(request.getDestination());
         flight.setDepartureTime(request.getDepartureTime());
+        flight.getCrew().forEach(member -> member.setDepartureTime(request.getDepartureTime()));
         flight.setArrivalTime(request.getArrivalTime());
         flight.setGate(request.getGate());
         flight.setStatus(request.getStatus());
         flight.setAircraftType(request.getAircraftType());
-        flight.setPilotId(request.getPilotId());
-        flight.setCoPilotId(request.getCoPilotId());
-        flight.setCrewMembers(request.getCrewMembers());
+        CrewService.applyCrew(flight, request);
         flight.setPassengerCount(request.getPassengerCount());
         flight.setNotes(request.getNotes());
         
-        Flight updatedFlight = flightRepository.save(flight);
+        GateAllocator.Allocation allocation = gateAllocator.allocate(flight,
+                () -> saveWithEvent(flight, FlightEventType.UPDATED));
+        Flight updatedFlight = allocation.flight();
+        flightBoard.upsert(updatedFlight);
         log.info("Updated flight: {}", updatedFlight.getFlightNumber());
-        return mapToResponse(updatedFlight);
+        return mapToResponse(allocation);
     }
     
-    public FlightResponse updateFlightStatus(Long id, FlightStatusRequest request) {
-        Flight flight = flightRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Flight not found with id: " + id));
+    // The flight and its outbox event are committed together
+    private Flight saveWithEvent(Flight flight, FlightEventType type) {
+        return transactionTemplate.execute(status -> {
+            Flight saved = flightRepository.saveAndFlush(flight);
+            flightOutbox.append(type, saved.getId(), saved.getVersion(), mapToResponse(saved));
+            return saved;
+        });
+    }
+    
+    /**
+     * Legacy status change: the version stays optional for the clients written before it
+     * existed, so a write without one is applied whatever the flight's version. Such writes
+     * are logged and counted (flight.writes.unversioned) until those clients are gone.
+     */
+    public FlightPatchResponse updateFlightStatus(Long id, FlightStatusRequest request) {
+        if (request.getVersion() == null) {
+            meterRegistry.counter("flight.writes.unversioned", "endpoint", "PUT /{id}/status").increment();
+            log.info("Unversioned status change of flight {} to {}", id, request.getStatus());
+        }
+        return applyPatch(id, FlightPatchRequest.builder()
+                .version(request.getVersion())
+                .status(request.getStatus())
+                .build());
+    }
+    
+    /**
+     * Status and/or gate change in one conditional UPDATE, without loading the flight. Fails
+     * with {@link FlightVersionConflictException} when the flight moved past request.version,
+     * which is required.
+     */
+    public FlightPatchResponse patchFlight(Long id, FlightPatchRequest request) {
+        if (request.getVersion() == null) {
+            throw new IllegalArgumentException("version is required");
+        }
+        return applyPatch(id, request);
+    }
+    
+    private FlightPatchResponse applyPatch(Long id, FlightPatchRequest request) {
+        if (request.getStatus() == null && (request.getGate() == null || request.getGate().isBlank())) {
+            throw new IllegalArgumentException("status or gate is required");
+        }
+        String gate = request.getGate() != null && !request.getGate().isBlank() ? request.getGate() : null;
+        GateAllocator.Change change = gateAllocator.change(id, request.getStatus(), gate,
+                () -> patchWithEvent(id, request.getVersion(), request.getStatus(), gate));
+        Long version = change.version().orElseThrow(() -> staleOrMissing(id, request.getVersion()));
+        flightBoard.patchAll(Map.of(id, version), request.getStatus(), gate);
         
-        flight.setStatus(request.getStatus());
-        Flight updatedFlight = flightRepository.save(flight);
+        log.info("Updated flight {} to status {} gate {} (version {})", id, request.getStatus(), gate, version);
+        return FlightPatchResponse.builder()
+                .id(id)
+                .version(version)
+                .status(request.getStatus())
+                .gate(gate)
+                .gateConflicts(change.conflicts().isEmpty() ? null : change.conflicts())
+                .build();
+    }
+    
+    // The change and its PATCHED event are committed together
+    private Optional<Long> patchWithEvent(Long id, Long expectedVersion, FlightStatus newStatus, String gate) {
+        return transactionTemplate.execute(status -> {
+            Optional<Long> updated = flightRepository.updateStatusAndGate(id, expectedVersion, newStatus, gate);
+            updated.ifPresent(newVersion -> flightOutbox.append(FlightEventType.PATCHED, id, newVersion,
+                    patched(id, newVersion, newStatus, gate)));
+            return updated;
+        });
+    }
+    
+    /**
+     * Sets one status on many flights in a single statement, each at the version given for it.
+     * Flights missing or changed since, and cancelled flights brought back to a gate slot that is
+     * now taken, are returned as rejected rather than failing the whole call.
+     */
+    public BulkStatusResponse updateStatuses(BulkStatusRequest request) {
+        if (request.getStatus() == null || request.getFlights() == null || request.getFlights().isEmpty()) {
+            throw new IllegalArgumentException("status and flights are required");
+        }
+        if (request.getFlights().size() > maxBulkStatusSize) {
+            throw new IllegalArgumentException("At most " + maxBulkStatusSize + " flights per call");
+        }
+        Map<Long, Long> expectedVersions = new LinkedHashMap<>();
+        for (FlightVersion flight : request.getFlights()) {
+            if (flight.getId() == null || expectedVersions.containsKey(flight.getId())) {
+                throw new IllegalArgumentException("Each flight needs a distinct id");
+            }
+            if (flight.getVersion() == null) {
+                throw new IllegalArgumentException("Flight " + flight.getId() + " needs a version");
+            }
+            expectedVersions.put(flight.getId(), flight.getVersion());
+        }
         
-        log.info("Updated flight {} status to: {}", flight.getFlightNumber(), request.getStatus());
-        return mapToResponse(updatedFlight);
+        Map<Long, Long> updated = changeStatuses(expectedVersions, request.getStatus());
+        flightBoard.patchAll(updated, request.getStatus(), null);
+        
+        log.info("Updated {} of {} flights to status {}", updated.size(), expectedVersions.size(), request.getStatus());
+        return BulkStatusResponse.builder()
+                .updated(updated.entrySet().stream()
+                        .map(entry -> new FlightVersion(entry.getKey(), entry.getValue()))
+                        .collect(Collectors.toList()))
+                .rejected(expectedVersions.keySet().stream()
+                        .filter(flightId -> !updated.containsKey(flightId))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+    
+    // Cancelled flights brought back take their gate slot again, checked like any other
+    private Map<Long, Long> changeStatuses(Map<Long, Long> expectedVersions, FlightStatus newStatus) {
+        try {
+            return gateAllocator.changeStatuses(expectedVersions.keySet(), newStatus,
+                    accepted -> transactionTemplate.execute(status -> {
+                        Map<Long, Long> selected = new LinkedHashMap<>(expectedVersions);
+                        selected.keySet().retainAll(accepted);
+                        Map<Long, Long> versions = flightRepository.updateStatuses(selected, newStatus);
+                        flightOutbox.appendAll(versions.entrySet().stream()
+                                .map(entry -> new FlightEvent.Pending(FlightEventType.PATCHED, entry.getKey(),
+                                        entry.getValue(), patched(entry.getKey(), entry.getValue(), newStatus, null)))
+                                .collect(Collectors.toList()));
+                        return versions;
+                    })).versions();
+        } catch (GateConflictException e) {
+            // A slot taken through another instance failed the whole statement: find the flights it concerns
+            log.warn("Bulk status change of {} flights hit a gate conflict, applying it one by one: {}",
+                    expectedVersions.size(), e.getMessage());
+            return changeStatusesOneByOne(expectedVersions, newStatus);
+        }
+    }
+    
+    // Each flight through the gate timelines on its own; the ones refused their slot are left out
+    private Map<Long, Long> changeStatusesOneByOne(Map<Long, Long> expectedVersions, FlightStatus newStatus) {
+        Map<Long, Long> updated = new LinkedHashMap<>();
+        expectedVersions.forEach((id, expectedVersion) -> {
+            try {
+                gateAllocator.change(id, newStatus, null, () -> patchWithEvent(id, expectedVersion, newStatus, null))
+                        .version()
+                        .ifPresent(version -> updated.put(id, version));
+            } catch (GateConflictException e) {
+                log.info("Flight {} not set to status {}: {}", id, newStatus, e.getMessage());
+            }
+        });
+        return updated;
+    }
+    
+    // Payload of a PATCHED event: the fields set by the change
+    private static FlightPatchResponse patched(Long id, Long version, FlightStatus status, String gate) {
+        return FlightPatchResponse.builder()
+                .id(id)
+                .version(version)
+                .status(status)
+                .gate(gate)
+                .build();
+    }
+    
+    private RuntimeException staleOrMissing(Long id, Long expectedVersion) {
+        return flightRepository.findVersionById(id)
+                .<RuntimeException>map(current -> new FlightVersionConflictException(
+                        "Flight " + id + " was modified since version " + expectedVersion, current))
+                .orElseGet(() -> new RuntimeException("Flight not found with id: " + id));
     }
     
     public void deleteFlight(Long id) {
         Flight flight = flightRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Flight not found with id: " + id));
         
-        flightRepository.delete(flight);
+        transactionTemplate.executeWithoutResult(status -> {
+            flightRepository.delete(flight);
+            flightOutbox.append(FlightEventType.DELETED, id, null,
+                    Map.of("id", id, "flightNumber", flight.getFlightNumber()));
+        });
+        gateAllocator.release(id);
+        flightBoard.remove(id);
         log.info("Deleted flight: {}", flight.getFlightNumber());
     }
     
     public List<FlightResponse> getFlightsByStatus(FlightStatus status) {
         return flightRepository.findByStatus(status).stream()
-                .map(this::mapToResponse)
+                .map(FlightService::mapToResponse)
                 .collect(Collectors.toList());
     }
     
     public List<FlightResponse> getFlightsByAirline(String airline) {
         return flightRepository.findByAirline(airline).stream()
-                .map(this::mapToResponse)
+                .map(FlightService::mapToResponse)
                 .collect(Collectors.toList());
     }
     
-    private FlightResponse mapToResponse(Flight flight) {
+    private FlightResponse mapToResponse(GateAllocator.Allocation allocation) {
+        FlightResponse response = mapToResponse(allocation.flight());
+        if (!allocation.conflicts().isEmpty()) {
+            response.setGateConflicts(allocation.conflicts());
+        }
+        return response;
+    }
+    
+    static FlightResponse mapToResponse(Flight flight) {
+        List<CrewMember> crew = flight.getCrew().stream()
+                .sorted(Comparator.comparing(CrewAssignment::getRole).thenComparing(CrewAssignment::getStaffId))
+                .map(member -> new CrewMember(member.getStaffId(), member.getRole()))
+                .collect(Collectors.toList());
         return FlightResponse.builder()
                 .id(flight.getId())
                 .flightNumber(flight.getFlightNumber())
@@ -126,13 +413,27 @@ public class FlightService {
                 .gate(flight.getGate())
                 .status(flight.getStatus())
                 .aircraftType(flight.getAircraftType())
-                .pilotId(flight.getPilotId())
-                .coPilotId(flight.getCoPilotId())
-                .crewMembers(flight.getCrewMembers())
+                .crew(crew)
+                .pilotId(firstOf(crew, CrewRole.PILOT))
+                .coPilotId(firstOf(crew, CrewRole.CO_PILOT))
+                .crewMembers(crew.stream()
+                        .filter(member -> member.getRole() == CrewRole.CABIN_CREW)
+                        .map(CrewMember::getStaffId)
+                        .reduce((first, second) -> first + "," + second)
+                        .orElse(null))
                 .passengerCount(flight.getPassengerCount())
                 .notes(flight.getNotes())
                 .createdAt(flight.getCreatedAt())
                 .updatedAt(flight.getUpdatedAt())
+                .version(flight.getVersion())
                 .build();
     }
+    
+    private static String firstOf(List<CrewMember> crew, CrewRole role) {
+        return crew.stream()
+                .filter(member -> member.getRole() == role)
+                .map(CrewMember::getStaffId)
+                .findFirst()
+                .orElse(null);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.flight_service.service;
+
+/**
+ * Flight changed since the client read it; mapped to 409 Conflict with the current version.
+ */
+public class FlightVersionConflictException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public FlightVersionConflictException(String message, Long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
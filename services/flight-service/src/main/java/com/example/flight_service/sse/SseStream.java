@@ -0,0 +1,159 @@
+package com.example.flight_service.sse;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * One Server-Sent Event stream with its own bounded queue.
+ * <p>
+ * Producers only queue events, they never write to the client: a drain task on a shared
+ * writer pool sends them, one task per stream at a time, so events keep their order and a
+ * client that stops reading only holds a writer thread of its own. A stream whose queue is
+ * full has fallen behind and is closed; the client reconnects and starts over.
+ */
+@Slf4j
+public class SseStream {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+    private final Executor writers;
+    private final Consumer<SseStream> onClose;
+    private final Runnable onOverflow;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // Set when the stream was closed by the server; the next drain completes the response
+    private volatile boolean completeRequested;
+
+    /**
+     * @param onClose    run once, when the stream closes for any reason
+     * @param onOverflow run when the stream is closed for falling behind
+     */
+    public SseStream(Duration timeout, int capacity, Executor writers,
+                     Consumer<SseStream> onClose, Runnable onOverflow) {
+        this(new SseEmitter(timeout.toMillis()), capacity, writers, onClose, onOverflow);
+    }
+
+    /** Stream over an emitter created by the caller, e.g. one that records what it sends. */
+    public SseStream(SseEmitter emitter, int capacity, Executor writers,
+                     Consumer<SseStream> onClose, Runnable onOverflow) {
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writers = writers;
+        this.onClose = onClose;
+        this.onOverflow = onOverflow;
+        emitter.onCompletion(this::markClosed);
+        emitter.onTimeout(this::markClosed);
+        emitter.onError(error -> markClosed());
+    }
+
+    /** Writer pool: daemon threads and a bounded queue; a stream it rejects is closed. */
+    public static ExecutorService writerPool(String name, int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public SseEmitter emitter() {
+        return emitter;
+    }
+
+    public boolean isOpen() {
+        return !closed.get();
+    }
+
+    /** Events queued and not yet written. */
+    public int backlog() {
+        return queue.size();
+    }
+
+    /**
+     * Queues the event. Returns false when the stream is closed, or has just been closed
+     * because its queue is full.
+     */
+    public boolean offer(SseEmitter.SseEventBuilder event) {
+        if (closed.get()) {
+            return false;
+        }
+        if (!queue.offer(event)) {
+            log.debug("Closing an SSE stream {} events behind", queue.size());
+            onOverflow.run();
+            complete();
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    /** Closes the stream from the server side once the event being written, if any, is sent. */
+    public void complete() {
+        if (markClosed()) {
+            completeRequested = true;
+            scheduleDrain();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writers.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // No drain is running, so completing here cannot wait on a blocked write
+            markClosed();
+            queue.clear();
+            completeRequested = false;
+            draining.set(false);
+            emitter.complete();
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!closed.get() && (event = queue.poll()) != null) {
+                emitter.send(event);
+            }
+            if (completeRequested) {
+                completeRequested = false;
+                queue.clear();
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client gone or stream already completed
+            markClosed();
+            queue.clear();
+            emitter.completeWithError(e);
+            log.debug("Dropped SSE stream: {}", e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+        // Events queued after the last poll, or a close requested during the last send
+        if ((!closed.get() && !queue.isEmpty()) || completeRequested) {
+            scheduleDrain();
+        }
+    }
+
+    private boolean markClosed() {
+        if (closed.compareAndSet(false, true)) {
+            onClose.accept(this);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+-- Schema of the flights table as previously created by Hibernate (ddl-auto).
+-- IF NOT EXISTS lets databases created that way be baselined without changes.
+CREATE TABLE IF NOT EXISTS flights (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    flight_number   VARCHAR(255) NOT NULL UNIQUE,
+    airline         VARCHAR(255) NOT NULL,
+    origin          VARCHAR(255) NOT NULL,
+    destination     VARCHAR(255) NOT NULL,
+    departure_time  TIMESTAMP(6) NOT NULL,
+    arrival_time    TIMESTAMP(6) NOT NULL,
+    gate            VARCHAR(255) NOT NULL,
+    status          VARCHAR(255) NOT NULL,
+    aircraft_type   VARCHAR(255) NOT NULL,
+    pilot_id        VARCHAR(255),
+    co_pilot_id     VARCHAR(255),
+    crew_members    VARCHAR(255),
+    passenger_count INTEGER,
+    notes           TEXT,
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,16 @@
+-- Indexes backing the FlightRepository finders, built without blocking writes.
+-- Flyway runs CONCURRENTLY statements outside a transaction.
+
+-- Keyset list (departure_time, id) and findFlightsByDateRange
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_flights_departure_time_id ON flights (departure_time, id);
+
+-- findByStatus and the departure board (status within a time window)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_flights_status_departure_time ON flights (status, departure_time);
+
+-- findActiveFlightsByGate
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_flights_gate_status ON flights (gate, status);
+
+-- findByAirline, findByOrigin, findByDestination, usually narrowed to a time window
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_flights_airline_departure_time ON flights (airline, departure_time);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_flights_origin_departure_time ON flights (origin, departure_time);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_flights_destination_departure_time ON flights (destination, departure_time);
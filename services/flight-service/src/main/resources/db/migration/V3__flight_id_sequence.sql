@@ -0,0 +1,8 @@
+-- Flight ids move from IDENTITY to a sequence Hibernate pre-allocates 50 at a time, which
+-- lets it batch inserts (an IDENTITY insert has to return its key row by row).
+-- Hibernate uses the block (value - 49 .. value], so the first value leaves room above the
+-- current ids.
+CREATE SEQUENCE IF NOT EXISTS flights_seq INCREMENT BY 50 OWNED BY flights.id;
+ALTER TABLE flights ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('flights_seq', COALESCE((SELECT MAX(id) FROM flights), 0) + 50, false);
+ALTER TABLE flights ALTER COLUMN id SET DEFAULT nextval('flights_seq');
@@ -0,0 +1,3 @@
+-- Optimistic locking: every update of a flight bumps its version, and the status/gate fast
+-- path only applies when the caller's version is still current.
+ALTER TABLE flights ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,14 @@
+-- Transactional outbox: one row per flight change, written in the transaction of the change.
+-- The id is the offset consumers resume from; writers insert under an advisory lock, so ids
+-- become visible in increasing order.
+CREATE TABLE IF NOT EXISTS flight_events (
+    id             BIGSERIAL PRIMARY KEY,
+    event_type     VARCHAR(20) NOT NULL,
+    flight_id      BIGINT NOT NULL,
+    flight_version BIGINT,
+    payload        JSONB NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL DEFAULT now()
+);
+
+-- Retention purge
+CREATE INDEX IF NOT EXISTS idx_flight_events_created_at ON flight_events (created_at);
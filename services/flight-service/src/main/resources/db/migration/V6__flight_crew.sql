@@ -0,0 +1,44 @@
+-- Crew assignments, one row per (flight, staff member), replacing the pilot_id, co_pilot_id
+-- and comma-separated crew_members columns of flights.
+-- departure_time is copied from the flight so that the flights of a staff member are read
+-- from one index in departure order, however many years of history it holds.
+CREATE SEQUENCE IF NOT EXISTS flight_crew_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS flight_crew (
+    id             BIGINT PRIMARY KEY DEFAULT nextval('flight_crew_seq'),
+    flight_id      BIGINT NOT NULL REFERENCES flights (id) ON DELETE CASCADE,
+    staff_id       VARCHAR(255) NOT NULL,
+    role           VARCHAR(20) NOT NULL,
+    departure_time TIMESTAMP(6) NOT NULL,
+    assigned_at    TIMESTAMP(6) NOT NULL,
+    -- Also the index of a flight's crew
+    CONSTRAINT uk_flight_crew_flight_staff UNIQUE (flight_id, staff_id)
+);
+
+ALTER SEQUENCE flight_crew_seq OWNED BY flight_crew.id;
+
+-- Flights of a staff member
+CREATE INDEX IF NOT EXISTS idx_flight_crew_staff_departure ON flight_crew (staff_id, departure_time, flight_id);
+
+-- Existing crews; someone listed under two roles keeps the first (pilot, co-pilot, cabin)
+INSERT INTO flight_crew (flight_id, staff_id, role, departure_time, assigned_at)
+SELECT flight_id, staff_id, role, departure_time, now()
+FROM (
+    SELECT id AS flight_id, btrim(pilot_id) AS staff_id, 'PILOT' AS role, departure_time, 1 AS rank
+    FROM flights
+    UNION ALL
+    SELECT id, btrim(co_pilot_id), 'CO_PILOT', departure_time, 2
+    FROM flights
+    UNION ALL
+    SELECT f.id, btrim(member.staff_id), 'CABIN_CREW', f.departure_time, 3
+    FROM flights f
+    CROSS JOIN LATERAL unnest(string_to_array(f.crew_members, ',')) AS member(staff_id)
+) crew
+WHERE staff_id IS NOT NULL AND staff_id <> ''
+ORDER BY flight_id, rank
+ON CONFLICT (flight_id, staff_id) DO NOTHING;
+
+ALTER TABLE flights
+    DROP COLUMN IF EXISTS pilot_id,
+    DROP COLUMN IF EXISTS co_pilot_id,
+    DROP COLUMN IF EXISTS crew_members;
@@ -0,0 +1,38 @@
+-- Two flights cannot hold one gate at the same time, whichever instance writes them: the
+-- in-memory gate timelines only see the writes of their own instance.
+-- The slot is [departure - turnaround-before, departure + turnaround-after), the same as
+-- GateAllocator's; the placeholders are explicit intervals set by GateMigrationPlaceholders.
+-- The constraint is only created under the REJECT policy (FLAG saves overlapping flights on
+-- purpose), with the settings in force when this migration runs; changing flight.gates.*
+-- later needs the constraint dropped and recreated by hand.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO $$
+DECLARE
+    overlaps BIGINT;
+    example TEXT;
+BEGIN
+    IF '${gate_on_conflict}' = 'REJECT' THEN
+        -- Overlaps already stored would only fail the ALTER below with a bare exclusion error
+        SELECT count(*), min(a.flight_number || ' / ' || b.flight_number || ' at gate ' || a.gate)
+        INTO overlaps, example
+        FROM flights a
+        JOIN flights b ON a.gate = b.gate AND a.id < b.id
+        WHERE a.status <> 'CANCELLED' AND b.status <> 'CANCELLED'
+          AND tsrange(a.departure_time - INTERVAL '${gate_turnaround_before}',
+                      a.departure_time + INTERVAL '${gate_turnaround_after}')
+           && tsrange(b.departure_time - INTERVAL '${gate_turnaround_before}',
+                      b.departure_time + INTERVAL '${gate_turnaround_after}');
+        IF overlaps > 0 THEN
+            RAISE EXCEPTION 'Cannot create flights_gate_no_overlap: % pairs of flights already overlap at their gate (e.g. %)', overlaps, example
+                USING HINT = 'Move or cancel one flight of each pair (the query above lists them), then restart. '
+                          || 'Starting with flight.gates.on-conflict=FLAG skips the constraint for good.';
+        END IF;
+
+        ALTER TABLE flights ADD CONSTRAINT flights_gate_no_overlap EXCLUDE USING gist (
+            gate WITH =,
+            tsrange(departure_time - INTERVAL '${gate_turnaround_before}',
+                    departure_time + INTERVAL '${gate_turnaround_after}') WITH &&
+        ) WHERE (status <> 'CANCELLED');
+    END IF;
+END $$;
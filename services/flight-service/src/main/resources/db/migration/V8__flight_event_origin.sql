@@ -0,0 +1,3 @@
+-- Instance that appended the event, so that it can skip its own writes when it reads the
+-- outbox back (its cache already saw them). Events written before are from no known instance.
+ALTER TABLE flight_events ADD COLUMN IF NOT EXISTS origin VARCHAR(36);
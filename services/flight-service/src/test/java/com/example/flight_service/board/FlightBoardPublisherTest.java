@@ -0,0 +1,101 @@
+package com.example.flight_service.board;
+
+import com.example.flight_service.dto.FlightFilter;
+import com.example.flight_service.entity.FlightStatus;
+import com.example.flight_service.sse.RecordingEmitter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightBoardPublisherTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 1, 15, 12, 0);
+    private static final FlightFilter GATE_A1 = FlightFilter.builder().gate("A1").build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FlightBoardPublisher publisher = publisher(2, 16);
+
+    @AfterEach
+    void shutdown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void subscriberGetsItsSnapshotThenTheMatchingDeltasOnly() throws InterruptedException {
+        RecordingEmitter emitter = subscribe(publisher, GATE_A1, 4);
+
+        publisher.publish(BoardDelta.upsert(5, row(1, "B2")), null, row(1, "B2"));
+        publisher.publish(BoardDelta.upsert(6, row(2, "A1")), null, row(2, "A1"));
+
+        RecordingEmitter.Event snapshot = emitter.next();
+        assertThat(snapshot.name()).isEqualTo("snapshot");
+        assertThat(snapshot.id()).isEqualTo("4");
+        RecordingEmitter.Event upsert = emitter.next();
+        assertThat(upsert.name()).isEqualTo("upsert");
+        assertThat(upsert.id()).isEqualTo("6");
+        assertThat(upsert.data()).contains("\"gate\":\"A1\"");
+        assertThat(emitter.drain(Duration.ofMillis(100))).isEmpty();
+    }
+
+    @Test
+    void rowLeavingTheFilterIsSentAsARemoveAndEnteringAsAnUpsert() throws InterruptedException {
+        RecordingEmitter emitter = subscribe(publisher, GATE_A1, 1);
+        emitter.next();
+
+        // Gate changed from A1 to B2, then back
+        publisher.publish(BoardDelta.upsert(2, row(1, "B2")), row(1, "A1"), row(1, "B2"));
+        publisher.publish(BoardDelta.upsert(3, row(1, "A1")), row(1, "B2"), row(1, "A1"));
+        // Never matched: nothing to send
+        publisher.publish(BoardDelta.remove(4, 9L), row(9, "C3"), null);
+
+        RecordingEmitter.Event remove = emitter.next();
+        assertThat(remove.name()).isEqualTo("remove");
+        assertThat(remove.id()).isEqualTo("2");
+        assertThat(remove.data()).contains("\"type\":\"REMOVE\"").contains("\"id\":1");
+        RecordingEmitter.Event upsert = emitter.next();
+        assertThat(upsert.name()).isEqualTo("upsert");
+        assertThat(upsert.id()).isEqualTo("3");
+        assertThat(emitter.drain(Duration.ofMillis(100))).isEmpty();
+    }
+
+    @Test
+    void subscribersBeyondTheLimitAreRefused() {
+        subscribe(publisher, null, 1);
+        subscribe(publisher, null, 1);
+
+        assertThatThrownBy(() -> publisher.subscribe(null, () -> snapshot(1)))
+                .isInstanceOf(BoardSubscriptionLimitException.class);
+    }
+
+    private FlightBoardPublisher publisher(int maxSubscribers, int maxQueued) {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        return new FlightBoardPublisher(objectMapper, meterRegistry, Duration.ofMinutes(1), maxSubscribers, maxQueued, 1) {
+            @Override
+            SseEmitter newEmitter(Duration timeout) {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    private static RecordingEmitter subscribe(FlightBoardPublisher publisher, FlightFilter filter, long version) {
+        return (RecordingEmitter) publisher.subscribe(filter, () -> snapshot(version));
+    }
+
+    private static BoardSnapshot snapshot(long version) {
+        return new BoardSnapshot(version, NOON.toLocalDate().atStartOfDay(), NOON.plusDays(1), List.of());
+    }
+
+    private static BoardFlight row(long id, String gate) {
+        return new BoardFlight(id, "AF" + id, "AF", "CDG", "FRA", NOON, NOON.plusHours(2),
+                gate, FlightStatus.SCHEDULED, "A320", 1L);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.flight_service.board;
+
+import com.example.flight_service.dto.FlightFilter;
+import com.example.flight_service.entity.Flight;
+import com.example.flight_service.entity.FlightStatus;
+import com.example.flight_service.repository.FlightRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FlightBoardTest {
+
+    private static final LocalDateTime TODAY = LocalDate.now(ZoneOffset.UTC).atStartOfDay();
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+    private final FlightBoardPublisher publisher = mock(FlightBoardPublisher.class);
+    private final FlightBoard board = new FlightBoard(flightRepository, publisher, new SimpleMeterRegistry(),
+            "UTC", Duration.ofHours(6));
+
+    @Test
+    void findUsesTheFilterAndKeepsDepartureOrder() {
+        load(flight(1, "AF", "A1", FlightStatus.SCHEDULED, TODAY.plusHours(14)),
+                flight(2, "AF", "A1", FlightStatus.BOARDING, TODAY.plusHours(9)),
+                flight(3, "LH", "A1", FlightStatus.SCHEDULED, TODAY.plusHours(11)),
+                flight(4, "AF", "B2", FlightStatus.SCHEDULED, TODAY.plusHours(10)),
+                // Past the look-ahead: not on the board
+                flight(5, "AF", "A1", FlightStatus.SCHEDULED, TODAY.plusDays(1).plusHours(7)));
+
+        assertThat(ids(board.find(null))).containsExactly(2L, 4L, 3L, 1L);
+        assertThat(ids(board.find(FlightFilter.builder().gate("A1").build()))).containsExactly(2L, 3L, 1L);
+        assertThat(ids(board.find(FlightFilter.builder().airline("AF").status(FlightStatus.SCHEDULED).build())))
+                .containsExactly(4L, 1L);
+        // [from, to)
+        assertThat(ids(board.find(FlightFilter.builder().from(TODAY.plusHours(10)).to(TODAY.plusHours(14)).build())))
+                .containsExactly(4L, 3L);
+        assertThat(board.find(FlightFilter.builder().gate("Z9").build())).isEmpty();
+    }
+
+    @Test
+    void snapshotIsSwappedBeforeItsDeltasArePublished() {
+        load(flight(1, "AF", "A1", FlightStatus.SCHEDULED, TODAY.plusHours(10)));
+        long loaded = board.snapshot(null).version();
+        List<Long> versionsSeenByDeltas = new ArrayList<>();
+        doAnswer(invocation -> {
+            // What a subscriber's snapshot, taken on the fan-out thread right now, would contain
+            versionsSeenByDeltas.add(board.snapshot(null).version());
+            return null;
+        }).when(publisher).publish(any(), any(), any());
+
+        board.upsertAll(List.of(flight(1, "AF", "B2", FlightStatus.BOARDING, TODAY.plusHours(10)),
+                flight(2, "LH", "C3", FlightStatus.SCHEDULED, TODAY.plusHours(12))));
+
+        assertThat(versionsSeenByDeltas).containsOnly(loaded + 2);
+    }
+
+    @Test
+    void writesDuringAReloadWinOverWhatItRead() {
+        load(flight(1, "AF", "A1", FlightStatus.SCHEDULED, TODAY.plusHours(10)),
+                flight(2, "AF", "A2", FlightStatus.SCHEDULED, TODAY.plusHours(11)));
+        Flight updated = flight(1, "AF", "A1", FlightStatus.DELAYED, TODAY.plusHours(10));
+        updated.setVersion(2L);
+        Flight created = flight(3, "LH", "B1", FlightStatus.SCHEDULED, TODAY.plusHours(12));
+        when(flightRepository.findFlightsByDateRange(any(), any())).thenAnswer(invocation -> {
+            // Written by this instance while the reload reads the rows as they were before
+            board.upsert(updated);
+            board.remove(2L);
+            board.upsert(created);
+            return List.of(flight(1, "AF", "A1", FlightStatus.SCHEDULED, TODAY.plusHours(10)),
+                    flight(2, "AF", "A2", FlightStatus.SCHEDULED, TODAY.plusHours(11)));
+        });
+
+        board.reload();
+
+        assertThat(board.find(null)).extracting(BoardFlight::id, BoardFlight::status)
+                .containsExactly(tuple(1L, FlightStatus.DELAYED), tuple(3L, FlightStatus.SCHEDULED));
+    }
+
+    @Test
+    void flightMovedOutOfTheWindowIsRemoved() {
+        load(flight(1, "AF", "A1", FlightStatus.SCHEDULED, TODAY.plusHours(10)));
+        BoardFlight before = board.find(null).get(0);
+
+        board.upsert(flight(1, "AF", "A1", FlightStatus.SCHEDULED, TODAY.plusDays(3)));
+
+        assertThat(board.find(null)).isEmpty();
+        verify(publisher).publish(any(BoardDelta.class), eq(before), isNull());
+    }
+
+    @Test
+    void patchAllOnlyTouchesFlightsOnTheBoard() {
+        load(flight(1, "AF", "A1", FlightStatus.SCHEDULED, TODAY.plusHours(10)));
+
+        board.patchAll(Map.of(1L, 5L, 99L, 3L), FlightStatus.BOARDING, null);
+
+        assertThat(board.find(null)).singleElement().satisfies(row -> {
+            assertThat(row.status()).isEqualTo(FlightStatus.BOARDING);
+            assertThat(row.gate()).isEqualTo("A1");
+            assertThat(row.version()).isEqualTo(5L);
+        });
+    }
+
+    private void load(Flight... flights) {
+        when(flightRepository.findFlightsByDateRange(any(), any())).thenReturn(List.of(flights));
+        board.reload();
+    }
+
+    private static List<Long> ids(List<BoardFlight> rows) {
+        return rows.stream().map(BoardFlight::id).toList();
+    }
+
+    private static Flight flight(long id, String airline, String gate, FlightStatus status, LocalDateTime departureTime) {
+        return Flight.builder()
+                .id(id)
+                .flightNumber(airline + id)
+                .airline(airline)
+                .origin("CDG")
+                .destination("FRA")
+                .gate(gate)
+                .status(status)
+                .departureTime(departureTime)
+                .arrivalTime(departureTime.plusHours(2))
+                .version(1L)
+                .build();
+    }
+}
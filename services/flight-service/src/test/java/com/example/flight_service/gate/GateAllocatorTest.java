@@ -0,0 +1,269 @@
+package com.example.flight_service.gate;
+
+import com.example.flight_service.entity.Flight;
+import com.example.flight_service.entity.FlightStatus;
+import com.example.flight_service.repository.FlightRepository;
+import com.example.flight_service.repository.GateSlot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GateAllocatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 15);
+    private static final LocalDateTime NOON = DAY.atTime(12, 0);
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+    private final AtomicLong ids = new AtomicLong();
+
+    @Test
+    void findConflictsReadsTheDayWithItsTurnarounds() {
+        when(flightRepository.findGateSlots(any(), any())).thenReturn(List.of());
+
+        allocator(GateConflictPolicy.REJECT).findConflicts(DAY);
+
+        // Departures from 15 minutes before the day to 45 minutes after it can hold the gate that day
+        verify(flightRepository).findGateSlots(DAY.atStartOfDay().minusMinutes(15),
+                DAY.plusDays(1).atStartOfDay().plusMinutes(45));
+    }
+
+    @Test
+    void findConflictsKeepsOverlapsTouchingTheDay() {
+        LocalDateTime midnight = DAY.plusDays(1).atStartOfDay();
+        when(flightRepository.findGateSlots(any(), any())).thenReturn(List.of(
+                slot(1, "A1", NOON),
+                slot(2, "A1", NOON.plusMinutes(30)),
+                // Same time, another gate
+                slot(3, "B1", NOON.plusMinutes(10)),
+                // Slots ending exactly at the start of the day
+                slot(4, "C1", DAY.atStartOfDay().minusMinutes(15)),
+                slot(5, "C1", DAY.atStartOfDay().minusMinutes(15)),
+                // Overlap straddling midnight
+                slot(6, "D1", midnight.minusMinutes(10)),
+                slot(7, "D1", midnight.plusMinutes(20)),
+                // Overlap entirely in the next day
+                slot(8, "E1", midnight.plusMinutes(50)),
+                slot(9, "E1", midnight.plusMinutes(55))));
+
+        List<GateConflict> conflicts = allocator(GateConflictPolicy.REJECT).findConflicts(DAY);
+
+        assertThat(conflicts).extracting(GateConflict::gate).containsExactly("A1", "D1");
+        GateConflict a1 = conflicts.get(0);
+        assertThat(a1.first().flightId()).isEqualTo(1L);
+        assertThat(a1.second().flightId()).isEqualTo(2L);
+        assertThat(a1.overlapFrom()).isEqualTo(NOON.minusMinutes(15));
+        assertThat(a1.overlapTo()).isEqualTo(NOON.plusMinutes(15));
+        assertThat(conflicts.get(1).overlapTo()).isEqualTo(midnight.plusMinutes(5));
+    }
+
+    @Test
+    void allocateAllRejectsConflictsWithinTheBatch() {
+        GateAllocator allocator = allocator(GateConflictPolicy.REJECT);
+        Flight first = flight("FL1", "A1", NOON);
+        Flight overlapping = flight("FL2", "A1", NOON.plusMinutes(30));
+        Flight otherGate = flight("FL3", "B1", NOON.plusMinutes(30));
+        Flight later = flight("FL4", "A1", NOON.plusHours(1));
+
+        List<GateAllocator.Allocation> allocations = allocator.allocateAll(
+                List.of(first, overlapping, otherGate, later), this::saveAll);
+
+        assertThat(allocations).extracting(GateAllocator.Allocation::flight)
+                .containsExactly(first, null, otherGate, later);
+        assertThat(allocations.get(1).conflicts()).extracting(GateOccupancy::flightNumber).containsExactly("FL1");
+        assertThat(allocations.get(3).conflicts()).isEmpty();
+        // The saved flights now hold their slots
+        assertThatThrownBy(() -> allocator.allocate(flight("FL5", "A1", NOON.plusMinutes(10)), () -> null))
+                .isInstanceOf(GateConflictException.class)
+                .hasMessageContaining("FL1");
+    }
+
+    @Test
+    void allocateAllFlagsConflictsWithinTheBatch() {
+        GateAllocator allocator = allocator(GateConflictPolicy.FLAG);
+        Flight first = flight("FL1", "A1", NOON);
+        Flight overlapping = flight("FL2", "A1", NOON.plusMinutes(30));
+
+        List<GateAllocator.Allocation> allocations = allocator.allocateAll(List.of(first, overlapping), this::saveAll);
+
+        assertThat(allocations).extracting(GateAllocator.Allocation::flight).containsExactly(first, overlapping);
+        assertThat(allocations.get(1).conflicts()).extracting(GateOccupancy::flightNumber).containsExactly("FL1");
+    }
+
+    @Test
+    void failedSaveFreesTheSlot() {
+        GateAllocator allocator = allocator(GateConflictPolicy.REJECT);
+
+        assertThatThrownBy(() -> allocator.allocate(flight("FL1", "A1", NOON), () -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        Flight retried = flight("FL1", "A1", NOON);
+        assertThat(allocator.allocate(retried, () -> save(retried)).conflicts()).isEmpty();
+    }
+
+    @Test
+    void updateDoesNotConflictWithItself() {
+        GateAllocator allocator = allocator(GateConflictPolicy.REJECT);
+        Flight flight = flight("FL1", "A1", NOON);
+        allocator.allocate(flight, () -> save(flight));
+
+        flight.setDepartureTime(NOON.plusMinutes(20));
+
+        assertThat(allocator.allocate(flight, () -> flight).conflicts()).isEmpty();
+    }
+
+    @Test
+    void gateChangeIsCheckedAndCancellationFreesTheSlot() {
+        GateAllocator allocator = allocator(GateConflictPolicy.REJECT);
+        Flight first = flight("FL1", "A1", NOON);
+        Flight second = flight("FL2", "B1", NOON.plusMinutes(30));
+        allocator.allocateAll(List.of(first, second), this::saveAll);
+
+        assertThatThrownBy(() -> allocator.change(second.getId(), null, "A1", () -> Optional.of(2L)))
+                .isInstanceOf(GateConflictException.class);
+
+        allocator.change(first.getId(), FlightStatus.CANCELLED, null, () -> Optional.of(2L));
+
+        GateAllocator.Change change = allocator.change(second.getId(), null, "A1", () -> Optional.of(2L));
+        assertThat(change.version()).contains(2L);
+        assertThat(change.conflicts()).isEmpty();
+    }
+
+    @Test
+    void unCancelledFlightIsCheckedAndTakesItsSlotBack() {
+        GateAllocator allocator = allocator(GateConflictPolicy.REJECT);
+        Flight first = flight("FL1", "A1", NOON);
+        allocator.allocate(first, () -> save(first));
+        allocator.change(first.getId(), FlightStatus.CANCELLED, null, () -> Optional.of(2L));
+        Flight second = flight("FL2", "A1", NOON.plusMinutes(30));
+        allocator.allocate(second, () -> save(second));
+        when(flightRepository.findCancelledGateSlots(List.of(first.getId())))
+                .thenReturn(List.of(slot(first.getId(), "A1", NOON)));
+
+        assertThatThrownBy(() -> allocator.change(first.getId(), FlightStatus.SCHEDULED, null, () -> {
+            throw new AssertionError("refused change must not be written");
+        })).isInstanceOf(GateConflictException.class).hasMessageContaining("FL2");
+
+        // Back at another gate: accepted, and holding that slot again
+        assertThat(allocator.change(first.getId(), FlightStatus.BOARDING, "B1", () -> Optional.of(3L)).version())
+                .contains(3L);
+        assertThatThrownBy(() -> allocator.allocate(flight("FL3", "B1", NOON.plusMinutes(10)), () -> null))
+                .isInstanceOf(GateConflictException.class)
+                .hasMessageContaining("FL1");
+    }
+
+    @Test
+    void changeStatusesRejectsUnCancelledFlightsWhoseSlotIsTaken() {
+        GateAllocator allocator = allocator(GateConflictPolicy.REJECT);
+        Flight holder = flight("FL1", "A1", NOON);
+        allocator.allocate(holder, () -> save(holder));
+        // 2 overlaps the holder, 3 and 4 overlap each other, 5 is tracked already
+        when(flightRepository.findCancelledGateSlots(List.of(2L, 3L, 4L))).thenReturn(List.of(
+                slot(2, "A1", NOON.plusMinutes(30)),
+                slot(3, "B1", NOON),
+                slot(4, "B1", NOON.plusMinutes(20))));
+        Flight tracked = flight("FL5", "C1", NOON);
+        tracked.setId(5L);
+        allocator.track(tracked);
+        List<Set<Long>> written = new ArrayList<>();
+
+        GateAllocator.StatusChange change = allocator.changeStatuses(List.of(2L, 3L, 4L, 5L), FlightStatus.SCHEDULED,
+                accepted -> {
+                    written.add(accepted);
+                    Map<Long, Long> versions = new LinkedHashMap<>();
+                    accepted.forEach(flightId -> versions.put(flightId, 2L));
+                    return versions;
+                });
+
+        assertThat(written).containsExactly(Set.of(3L, 5L));
+        assertThat(change.versions()).containsOnlyKeys(3L, 5L);
+        assertThat(change.conflicts()).containsOnlyKeys(2L, 4L);
+        assertThatThrownBy(() -> allocator.allocate(flight("FL6", "B1", NOON.minusMinutes(10)), () -> null))
+                .isInstanceOf(GateConflictException.class)
+                .hasMessageContaining("FL3");
+    }
+
+    @Test
+    void exclusionViolationIsAGateConflict() {
+        GateAllocator allocator = allocator(GateConflictPolicy.REJECT);
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("flights_gate_no_overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01"));
+
+        assertThatThrownBy(() -> allocator.change(1L, FlightStatus.SCHEDULED, null, () -> {
+            throw violation;
+        })).isInstanceOf(GateConflictException.class);
+        assertThatThrownBy(() -> allocator.changeStatuses(List.of(1L), FlightStatus.SCHEDULED, accepted -> {
+            throw violation;
+        })).isInstanceOf(GateConflictException.class);
+    }
+
+    private GateAllocator allocator(GateConflictPolicy policy) {
+        return new GateAllocator(flightRepository, new SimpleMeterRegistry(),
+                Duration.ofMinutes(45), Duration.ofMinutes(15), Duration.ofDays(1), policy);
+    }
+
+    private List<Flight> saveAll(List<Flight> flights) {
+        flights.forEach(this::save);
+        return flights;
+    }
+
+    private Flight save(Flight flight) {
+        flight.setId(ids.incrementAndGet());
+        return flight;
+    }
+
+    private static Flight flight(String flightNumber, String gate, LocalDateTime departureTime) {
+        return Flight.builder()
+                .flightNumber(flightNumber)
+                .gate(gate)
+                .departureTime(departureTime)
+                .status(FlightStatus.SCHEDULED)
+                .build();
+    }
+
+    private static GateSlot slot(long id, String gate, LocalDateTime departureTime) {
+        return new Slot(id, "FL" + id, gate, departureTime);
+    }
+
+    private record Slot(Long id, String flightNumber, String gate, LocalDateTime departureTime) implements GateSlot {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getFlightNumber() {
+            return flightNumber;
+        }
+
+        @Override
+        public String getGate() {
+            return gate;
+        }
+
+        @Override
+        public LocalDateTime getDepartureTime() {
+            return departureTime;
+        }
+    }
+}
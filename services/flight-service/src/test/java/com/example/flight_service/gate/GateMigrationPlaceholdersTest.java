@@ -0,0 +1,35 @@
+package com.example.flight_service.gate;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GateMigrationPlaceholdersTest {
+
+    @Test
+    void turnaroundsArePassedAsExplicitIntervals() {
+        FluentConfiguration configuration = Flyway.configure();
+
+        new GateMigrationPlaceholders(Duration.ofMinutes(45), Duration.ofMinutes(15), GateConflictPolicy.REJECT)
+                .customize(configuration);
+
+        assertThat(configuration.getPlaceholders())
+                .containsEntry("gate_on_conflict", "REJECT")
+                .containsEntry("gate_turnaround_before", "2700 seconds")
+                .containsEntry("gate_turnaround_after", "900 seconds");
+    }
+
+    @Test
+    void turnaroundsThatAreNoIntervalStopTheStartup() {
+        assertThatThrownBy(() -> GateMigrationPlaceholders.interval("flight.gates.turnaround-after", Duration.ofMillis(1500)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("flight.gates.turnaround-after");
+        assertThatThrownBy(() -> GateMigrationPlaceholders.interval("flight.gates.turnaround-before", Duration.ofMinutes(-5)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
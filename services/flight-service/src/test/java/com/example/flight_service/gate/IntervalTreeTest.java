@@ -0,0 +1,114 @@
+package com.example.flight_service.gate;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+    @Test
+    void intervalsAreHalfOpen() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(1, T0, T0.plusHours(1), "a");
+
+        // Touching either end is not an overlap
+        assertThat(tree.overlapping(T0.plusHours(1), T0.plusHours(2), null)).isEmpty();
+        assertThat(tree.overlapping(T0.minusHours(1), T0, null)).isEmpty();
+        assertThat(tree.overlapping(T0.plusMinutes(59), T0.plusHours(2), null)).containsExactly("a");
+        assertThat(tree.overlapping(T0.minusHours(1), T0.plusMinutes(1), null)).containsExactly("a");
+        assertThat(tree.overlapping(T0.plusMinutes(10), T0.plusMinutes(20), null)).containsExactly("a");
+    }
+
+    @Test
+    void overlappingIsInStartOrderAndSkipsTheExcludedId() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(3, T0.plusMinutes(30), T0.plusHours(2), "c");
+        tree.insert(1, T0, T0.plusHours(1), "a");
+        tree.insert(2, T0.plusMinutes(15), T0.plusMinutes(45), "b");
+        tree.insert(4, T0.plusHours(3), T0.plusHours(4), "d");
+
+        assertThat(tree.overlapping(T0, T0.plusHours(1), null)).containsExactly("a", "b", "c");
+        assertThat(tree.overlapping(T0, T0.plusHours(1), 2L)).containsExactly("a", "c");
+    }
+
+    @Test
+    void insertWithSameStartAndIdReplaces() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(1, T0, T0.plusHours(1), "a");
+        tree.insert(1, T0, T0.plusHours(3), "a2");
+
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.overlapping(T0.plusHours(2), T0.plusHours(4), null)).containsExactly("a2");
+    }
+
+    @Test
+    void removeNeedsStartAndId() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(1, T0, T0.plusHours(1), "a");
+
+        assertThat(tree.remove(2, T0)).isFalse();
+        assertThat(tree.remove(1, T0.plusMinutes(1))).isFalse();
+        assertThat(tree.remove(1, T0)).isTrue();
+        assertThat(tree.size()).isZero();
+        assertThat(tree.overlapping(T0, T0.plusHours(1), null)).isEmpty();
+    }
+
+    @Test
+    void removeNodeWithTwoChildrenKeepsTheRest() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        // Ascending inserts rebalance into 4 at the root, with 2 and 6 below it
+        for (int i = 1; i <= 7; i++) {
+            tree.insert(i, T0.plusHours(i), T0.plusHours(i + 1), "f" + i);
+        }
+        // The longest interval sits at the root: once removed, maxEnd must come from the others
+        tree.insert(4, T0.plusHours(4), T0.plusHours(20), "f4");
+
+        assertThat(tree.remove(4, T0.plusHours(4))).isTrue();
+
+        assertThat(tree.size()).isEqualTo(6);
+        assertThat(tree.overlapping(T0.plusHours(9), T0.plusHours(20), null)).isEmpty();
+        assertThat(tree.overlapping(T0, T0.plusHours(10), null))
+                .containsExactly("f1", "f2", "f3", "f5", "f6", "f7");
+    }
+
+    @Test
+    void matchesALinearScan() {
+        Random random = new Random(42);
+        IntervalTree<Long> tree = new IntervalTree<>();
+        Map<Long, LocalDateTime[]> intervals = new HashMap<>();
+        for (long id = 0; id < 2000; id++) {
+            LocalDateTime start = T0.plusMinutes(random.nextInt(10_000));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(300));
+            tree.insert(id, start, end, id);
+            intervals.put(id, new LocalDateTime[] {start, end});
+            if (random.nextInt(3) == 0) {
+                long removed = random.nextLong(id + 1);
+                LocalDateTime[] interval = intervals.remove(removed);
+                assertThat(tree.remove(removed, interval != null ? interval[0] : T0.minusDays(1)))
+                        .isEqualTo(interval != null);
+            }
+        }
+        assertThat(tree.size()).isEqualTo(intervals.size());
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime from = T0.plusMinutes(random.nextInt(10_300));
+            LocalDateTime to = from.plusMinutes(1 + random.nextInt(120));
+            List<Long> expected = new ArrayList<>();
+            intervals.forEach((id, interval) -> {
+                if (interval[0].isBefore(to) && interval[1].isAfter(from)) {
+                    expected.add(id);
+                }
+            });
+            assertThat(tree.overlapping(from, to, null)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+}
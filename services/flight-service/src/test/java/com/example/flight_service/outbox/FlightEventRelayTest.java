@@ -0,0 +1,207 @@
+package com.example.flight_service.outbox;
+
+import com.example.flight_service.repository.FlightCache;
+import com.example.flight_service.sse.RecordingEmitter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class FlightEventRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StubOutbox outbox = new StubOutbox();
+    private final FlightCache flightCache = mock(FlightCache.class);
+    private FlightEventRelay relay;
+
+    @AfterEach
+    void shutdown() {
+        relay.shutdown();
+    }
+
+    @Test
+    void catchUpHandsOverToTheLiveEventsWithoutGapsOrDuplicates() throws Exception {
+        relay = relay(64, RecordingEmitter::new);
+        outbox.add(1, 7);
+        relay.poll();
+
+        RecordingEmitter emitter = (RecordingEmitter) relay.subscribe(0L);
+        // Written and relayed while the stream pages through the table
+        for (long offset = 8; offset <= 30; offset++) {
+            outbox.add(offset, offset);
+            relay.poll();
+            Thread.sleep(2);
+        }
+
+        List<Long> received = new ArrayList<>();
+        while (received.isEmpty() || received.get(received.size() - 1) < 30) {
+            RecordingEmitter.Event event = emitter.next();
+            assertThat(event.name()).isEqualTo("events");
+            List<Long> offsets = offsets(event.data());
+            // Resuming from the id continues right after the last event of the message
+            assertThat(event.id()).isEqualTo(Long.toString(offsets.get(offsets.size() - 1)));
+            received.addAll(offsets);
+        }
+        assertThat(received).containsExactlyElementsOf(LongStream.rangeClosed(1, 30).boxed().toList());
+        assertThat(emitter.drain(Duration.ofMillis(100))).isEmpty();
+    }
+
+    @Test
+    void purgedOffsetIsAnsweredWithAResetThenTheOldestEventsKept() throws Exception {
+        relay = relay(64, RecordingEmitter::new);
+        outbox.add(11, 15);
+        relay.poll();
+
+        RecordingEmitter emitter = (RecordingEmitter) relay.subscribe(3L);
+
+        RecordingEmitter.Event reset = emitter.next();
+        assertThat(reset.name()).isEqualTo("reset");
+        assertThat(reset.id()).isEqualTo("10");
+        assertThat(objectMapper.readTree(reset.data()))
+                .isEqualTo(objectMapper.readTree("{\"requestedOffset\":3,\"earliestOffset\":11}"));
+        assertThat(receivedUpTo(emitter, 15)).containsExactly(11L, 12L, 13L, 14L, 15L);
+        assertThat(meterRegistry.counter("flight.events.resets").count()).isEqualTo(1);
+
+        // Right before the oldest event kept: nothing was missed
+        RecordingEmitter resumed = (RecordingEmitter) relay.subscribe(10L);
+        assertThat(receivedUpTo(resumed, 15)).containsExactly(11L, 12L, 13L, 14L, 15L);
+        assertThat(meterRegistry.counter("flight.events.resets").count()).isEqualTo(1);
+    }
+
+    @Test
+    void streamFallingBehindIsDisconnected() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        // A client that stops reading: the first write never returns until released
+        relay = relay(2, () -> new RecordingEmitter() {
+            @Override
+            public void send(SseEmitter.SseEventBuilder builder) {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        });
+        relay.poll();
+        RecordingEmitter emitter = (RecordingEmitter) relay.subscribe(null);
+
+        try {
+            for (long offset = 1; meterRegistry.counter("flight.events.overflows").count() == 0; offset++) {
+                assertThat(offset).as("events relayed without an overflow").isLessThan(1_000);
+                outbox.add(offset, offset);
+                relay.poll();
+                Thread.sleep(5);
+            }
+        } finally {
+            unblock.countDown();
+        }
+
+        assertThat(emitter.awaitCompletion()).isTrue();
+        assertThat(meterRegistry.get("flight.events.subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    void pollEvictsOnlyTheFlightsChangedThroughOtherInstances() {
+        relay = relay(64, RecordingEmitter::new);
+        relay.poll();
+        outbox.add(1, 3, StubOutbox.LOCAL);
+        outbox.add(4, 5, "another-instance");
+        outbox.add(6, 6, StubOutbox.LOCAL);
+
+        relay.poll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> evicted = ArgumentCaptor.forClass(Collection.class);
+        verify(flightCache, atLeastOnce()).evict(evicted.capture());
+        assertThat(evicted.getAllValues().stream().flatMap(Collection::stream)).containsExactlyInAnyOrder(4L, 5L);
+    }
+
+    private FlightEventRelay relay(int maxQueued, Supplier<RecordingEmitter> emitters) {
+        return new FlightEventRelay(outbox, flightCache, objectMapper, meterRegistry,
+                2, 100, Duration.ofMillis(10), Duration.ofDays(7), Duration.ofMinutes(1), 10, maxQueued, 1) {
+            @Override
+            SseEmitter newEmitter(Duration timeout) {
+                return emitters.get();
+            }
+        };
+    }
+
+    private List<Long> receivedUpTo(RecordingEmitter emitter, long last) throws Exception {
+        List<Long> received = new ArrayList<>();
+        while (received.isEmpty() || received.get(received.size() - 1) < last) {
+            received.addAll(offsets(emitter.next().data()));
+        }
+        return received;
+    }
+
+    private List<Long> offsets(String data) throws Exception {
+        List<Long> offsets = new ArrayList<>();
+        for (JsonNode event : objectMapper.readTree(data)) {
+            offsets.add(event.get("offset").asLong());
+        }
+        return offsets;
+    }
+
+    // The flight_events table, in memory
+    private static final class StubOutbox extends FlightOutbox {
+
+        // Origin of the events this instance appends
+        static final String LOCAL = "this-instance";
+
+        private final List<FlightEvent> events = new ArrayList<>();
+
+        StubOutbox() {
+            super(null, null, new SimpleMeterRegistry());
+        }
+
+        void add(long from, long to) {
+            add(from, to, "another-instance");
+        }
+
+        synchronized void add(long from, long to, String origin) {
+            for (long offset = from; offset <= to; offset++) {
+                events.add(new FlightEvent(offset, FlightEventType.PATCHED, offset, 2L, LocalDateTime.now(),
+                        "{\"status\":\"BOARDING\"}", origin));
+            }
+        }
+
+        @Override
+        public boolean isOwn(FlightEvent event) {
+            return LOCAL.equals(event.origin());
+        }
+
+        @Override
+        public synchronized List<FlightEvent> read(long after, int limit) {
+            return events.stream().filter(event -> event.offset() > after).limit(limit).toList();
+        }
+
+        @Override
+        public synchronized long latestOffset() {
+            return events.isEmpty() ? 0 : events.get(events.size() - 1).offset();
+        }
+
+        @Override
+        public synchronized long earliestOffset() {
+            return events.isEmpty() ? 0 : events.get(0).offset();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.flight_service.repository;
+
+import com.example.flight_service.entity.CrewAssignment;
+import com.example.flight_service.entity.Flight;
+import com.example.flight_service.entity.FlightStatus;
+import jakarta.persistence.EntityManager;
+import org.flywaydb.core.Flyway;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the finder queries of {@link FlightRepository} are planned on the indexes of
+ * the migrations rather than on a sequential scan of flights. Each finder is run through
+ * Hibernate and the exact statement it sent, with its parameters, is explained.
+ * <p>
+ * Needs a local PostgreSQL; the test works in its own schema, which it drops afterwards:
+ * <pre>
+ * FLIGHT_PLAN_DB_URL=jdbc:postgresql://localhost:5434/airops_flights \
+ * FLIGHT_PLAN_DB_USERNAME=postgres FLIGHT_PLAN_DB_PASSWORD=postgres \
+ * mvn test -Dtest=FlightIndexPlanTest
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "FLIGHT_PLAN_DB_URL", matches = ".+")
+class FlightIndexPlanTest {
+
+    private static final String SCHEMA = "flight_plan_test";
+    private static final int FLIGHTS = Integer.parseInt(System.getenv().getOrDefault("FLIGHT_PLAN_ROWS", "500000"));
+
+    private static Connection connection;
+    private static SessionFactory sessionFactory;
+    private static EntityManager entityManager;
+    private static FlightRepository flightRepository;
+    // Statement Hibernate last executed, recorded by the capturing data source
+    private static volatile CapturedQuery lastQuery;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        String url = System.getenv("FLIGHT_PLAN_DB_URL");
+        String username = System.getenv().getOrDefault("FLIGHT_PLAN_DB_USERNAME", "postgres");
+        String password = System.getenv().getOrDefault("FLIGHT_PLAN_DB_PASSWORD", "postgres");
+        connection = DriverManager.getConnection(url, username, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        Flyway.configure()
+                .dataSource(url, username, password)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration")
+                .placeholders(Map.of("gate_on_conflict", "REJECT",
+                        "gate_turnaround_before", "2700 seconds",
+                        "gate_turnaround_after", "900 seconds"))
+                .load()
+                .migrate();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA);
+            // Two years of flights around now; only recent ones are still SCHEDULED or BOARDING
+            statement.execute("""
+                    INSERT INTO flights (flight_number, airline, origin, destination, departure_time, arrival_time,
+                                         gate, status, aircraft_type, created_at, updated_at)
+                    SELECT 'FL' || i,
+                           'AIRLINE' || (i %% 40),
+                           'ORG' || (i %% 60),
+                           'DST' || (i %% 60),
+                           now() - interval '365 days' + (i * interval '730 days' / %d),
+                           now() - interval '365 days' + (i * interval '730 days' / %d) + interval '2 hours',
+                           'G' || (i %% 120),
+                           CASE WHEN i %% 97 = 0 THEN 'BOARDING'
+                                WHEN i > %d / 2 THEN 'SCHEDULED'
+                                ELSE 'ARRIVED' END,
+                           'A320', now(), now()
+                    FROM generate_series(1, %d) AS i
+                    """.formatted(FLIGHTS, FLIGHTS, FLIGHTS, FLIGHTS));
+            // Four crew members per flight out of 5000 staff
+            statement.execute("""
+                    INSERT INTO flight_crew (flight_id, staff_id, role, departure_time, assigned_at)
+                    SELECT f.id, 'EMP' || ((f.id * 4 + member) % 5000),
+                           CASE member WHEN 0 THEN 'PILOT' WHEN 1 THEN 'CO_PILOT' ELSE 'CABIN_CREW' END,
+                           f.departure_time, now()
+                    FROM flights f CROSS JOIN generate_series(0, 3) AS member
+                    ON CONFLICT DO NOTHING
+                    """);
+            statement.execute("ANALYZE flights");
+            statement.execute("ANALYZE flight_crew");
+        }
+
+        // The real repository on plain Hibernate, so the SQL explained is what the finders send
+        sessionFactory = new MetadataSources(new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DATASOURCE, capturingDataSource(url, username, password))
+                .applySetting(AvailableSettings.DEFAULT_SCHEMA, SCHEMA)
+                .build())
+                .addAnnotatedClass(Flight.class)
+                .addAnnotatedClass(CrewAssignment.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+        flightRepository = new JpaRepositoryFactory(entityManager).getRepository(FlightRepository.class,
+                RepositoryComposition.RepositoryFragments.just(new FlightFastUpdates() {
+                    @Override
+                    public Optional<Long> updateStatusAndGate(Long id, Long expectedVersion, FlightStatus status, String gate) {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public Map<Long, Long> updateStatuses(Map<Long, Long> expectedVersions, FlightStatus status) {
+                        throw new UnsupportedOperationException();
+                    }
+                }));
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        if (entityManager != null) {
+            entityManager.close();
+            sessionFactory.close();
+        }
+        if (connection == null) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    void findByStatusUsesStatusIndex() throws SQLException {
+        assertIndexScan(() -> flightRepository.findByStatus(FlightStatus.BOARDING),
+                "idx_flights_status_departure_time");
+    }
+
+    @Test
+    void boardWindowUsesDepartureIndex() throws SQLException {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        assertIndexScan(() -> flightRepository.findFlightsByDateRange(today, today.plusDays(1).plusHours(6)),
+                "idx_flights_departure_time_id");
+    }
+
+    @Test
+    void findActiveFlightsByGateUsesGateIndex() throws SQLException {
+        assertIndexScan(() -> flightRepository.findActiveFlightsByGate("G17"), "idx_flights_gate_status");
+    }
+
+    @Test
+    void gateSlotsOfADayUseDepartureIndex() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        assertIndexScan(() -> flightRepository.findGateSlots(now, now.plusDays(1)), "idx_flights_departure_time_id");
+    }
+
+    @Test
+    void keysetPageUsesDepartureIndex() throws SQLException {
+        assertIndexScan(() -> flightRepository.findPage(LocalDateTime.now(), 0L, null, null, null, null, null, null,
+                Limit.of(50)), "idx_flights_departure_time_id");
+    }
+
+    @Test
+    void findByAirlineUsesAirlineIndex() throws SQLException {
+        assertIndexScan(() -> flightRepository.findByAirline("AIRLINE7"), "idx_flights_airline_departure_time");
+    }
+
+    @Test
+    void findByOriginUsesOriginIndex() throws SQLException {
+        assertIndexScan(() -> flightRepository.findByOrigin("ORG3"), "idx_flights_origin_departure_time");
+    }
+
+    @Test
+    void findByDestinationUsesDestinationIndex() throws SQLException {
+        assertIndexScan(() -> flightRepository.findByDestination("DST3"), "idx_flights_destination_departure_time");
+    }
+
+    @Test
+    void flightsOfACrewMemberUseStaffIndex() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        assertIndexScan(() -> flightRepository.findByCrewMember("EMP42", now.minusDays(30), now, Limit.of(50)),
+                "idx_flight_crew_staff_departure");
+    }
+
+    @Test
+    void crewOfFlightsUsesFlightStaffKey() throws SQLException {
+        entityManager.clear();
+        List<Flight> flights = flightRepository.findAllById(List.of(10L, 20L, 30L));
+        assertThat(flights).isNotEmpty();
+        // The batch fetch of the crews, for all three flights at once
+        assertIndexScan(() -> Hibernate.initialize(flights.get(0).getCrew()), "uk_flight_crew_flight_staff");
+    }
+
+    // Runs the finder, then EXPLAINs the statement Hibernate sent for it with the same parameters
+    private static void assertIndexScan(Runnable finder, String index) throws SQLException {
+        lastQuery = null;
+        finder.run();
+        assertThat(lastQuery).as("query sent by the finder").isNotNull();
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + lastQuery.sql())) {
+            for (Binding binding : lastQuery.bindings()) {
+                binding.applyTo(statement);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+        }
+        assertThat(plan.toString())
+                .as("plan of %s", lastQuery.sql())
+                .contains(index)
+                .doesNotContain("Seq Scan on flights")
+                .doesNotContain("Seq Scan on flight_crew");
+    }
+
+    private record Binding(Method setter, Object[] args) {
+
+        void applyTo(PreparedStatement statement) throws SQLException {
+            try {
+                setter.invoke(statement, args);
+            } catch (ReflectiveOperationException e) {
+                throw new SQLException("Could not replay " + setter.getName(), e);
+            }
+        }
+    }
+
+    private record CapturedQuery(String sql, List<Binding> bindings) {
+    }
+
+    // Connections whose prepared statements remember their SQL and parameters
+    private static DataSource capturingDataSource(String url, String username, String password) {
+        return new DelegatingDataSource(new DriverManagerDataSource(url, username, password)) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return capturing(super.getConnection());
+            }
+        };
+    }
+
+    private static Connection capturing(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (method.getName().equals("prepareStatement")) {
+                        return capturing((PreparedStatement) result, (String) args[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement capturing(PreparedStatement target, String sql) {
+        List<Binding> bindings = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        bindings.add(new Binding(method, args));
+                    } else if (method.getName().equals("clearParameters")) {
+                        bindings.clear();
+                    } else if (method.getName().startsWith("execute")) {
+                        lastQuery = new CapturedQuery(sql, List.copyOf(bindings));
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
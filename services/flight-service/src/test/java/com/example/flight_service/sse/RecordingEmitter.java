@@ -0,0 +1,73 @@
+package com.example.flight_service.sse;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emitter that keeps what it is asked to send instead of writing to a response, for tests of
+ * the SSE publishers. Sends happen on writer threads, hence the waiting reads.
+ */
+public class RecordingEmitter extends SseEmitter {
+
+    /** One sent event; name and id are null for comment lines. */
+    public record Event(String name, String id, String data) {
+    }
+
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    @Override
+    public void send(SseEventBuilder builder) {
+        StringBuilder text = new StringBuilder();
+        for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+            text.append(part.getData());
+        }
+        String name = null;
+        String id = null;
+        String data = null;
+        for (String line : text.toString().split("\n")) {
+            if (line.startsWith("event:")) {
+                name = line.substring("event:".length());
+            } else if (line.startsWith("id:")) {
+                id = line.substring("id:".length());
+            } else if (line.startsWith("data:")) {
+                data = line.substring("data:".length());
+            }
+        }
+        events.add(new Event(name, id, data));
+    }
+
+    @Override
+    public void complete() {
+        completed.countDown();
+    }
+
+    /** Next event sent, waiting up to a few seconds for it. */
+    public Event next() throws InterruptedException {
+        Event event = events.poll(5, TimeUnit.SECONDS);
+        if (event == null) {
+            throw new AssertionError("No event sent within 5 seconds");
+        }
+        return event;
+    }
+
+    /** Events sent within the given time, without waiting further. */
+    public List<Event> drain(Duration settle) throws InterruptedException {
+        Thread.sleep(settle.toMillis());
+        List<Event> drained = new ArrayList<>();
+        events.drainTo(drained);
+        return drained;
+    }
+
+    public boolean awaitCompletion() throws InterruptedException {
+        return completed.await(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.gateway.security;
+
+import com.example.security.IdentityHeaders;
+import com.example.security.JwtVerifier;
+import com.example.security.RevocationList;
+import com.example.security.TokenDigest;
+import com.example.security.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies bearer tokens once at the edge and forwards the caller's identity to the backends
+ * as {@link IdentityHeaders}. Identity headers sent by clients are always removed.
+ * <p>
+ * Requests without a token are forwarded as is; backends still decide whether the endpoint
+ * is public. Requests with an invalid, expired or revoked token are answered with 401,
+ * except on the configured public paths (login, register...).
+ */
+@Component
+public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
+
+    private final JwtVerifier jwtVerifier;
+    private final RevocationList revocationList;
+    private final VerifiedTokenCache cache;
+    private final List<PathPattern> publicPaths;
+
+    public JwtAuthenticationGlobalFilter(JwtVerifier jwtVerifier,
+                                         RevocationList revocationList,
+                                         VerifiedTokenCache cache,
+                                         @Value("${gateway.jwt.public-paths:/api/v1/auth/register,/api/v1/auth/authenticate,/api/v1/auth/refresh,/api/v1/auth/validate,/.well-known/**}")
+                                         List<String> publicPaths) {
+        this.jwtVerifier = jwtVerifier;
+        this.revocationList = revocationList;
+        this.cache = cache;
+        this.publicPaths = publicPaths.stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> IdentityHeaders.ALL.forEach(headers::remove))
+                .build();
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange.mutate().request(request).build());
+        }
+
+        return verify(authHeader.substring(7))
+                .flatMap(token -> {
+                    if (token.isPresent()) {
+                        return chain.filter(exchange.mutate().request(withIdentity(request, token.get())).build());
+                    }
+                    if (isPublic(request)) {
+                        return chain.filter(exchange.mutate().request(request).build());
+                    }
+                    exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    private Mono<Optional<VerifiedToken>> verify(String jwt) {
+        String digest = TokenDigest.sha256(jwt);
+        VerifiedToken cached = cache.get(digest);
+        Mono<VerifiedToken> verified = cached != null
+                ? Mono.just(cached)
+                // Signature checks are CPU bound and a JWKS refresh may block: keep them off the event loop
+                : Mono.fromCallable(() -> jwtVerifier.verify(jwt))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .doOnNext(token -> cache.put(digest, token));
+        return verified
+                // Revocation is checked on every request, cached or not
+                .map(token -> Optional.of(token)
+                        .filter(t -> t.jti() != null && !revocationList.isRevoked(t.jti())))
+                .onErrorResume(e -> Mono.just(Optional.empty()));
+    }
+
+    private static ServerHttpRequest withIdentity(ServerHttpRequest request, VerifiedToken token) {
+        return request.mutate()
+                .headers(headers -> {
+                    if (token.userId() != null) {
+                        headers.set(IdentityHeaders.USER_ID, String.valueOf(token.userId()));
+                    }
+                    headers.set(IdentityHeaders.EMAIL, token.email());
+                    if (token.role() != null) {
+                        headers.set(IdentityHeaders.ROLE, token.role());
+                    }
+                    headers.set(IdentityHeaders.AUTHORITIES, token.authorities().stream()
+                            .map(GrantedAuthority::getAuthority)
+                            .collect(Collectors.joining(",")));
+                })
+                .build();
+    }
+
+    private boolean isPublic(ServerHttpRequest request) {
+        return publicPaths.stream()
+                .anyMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.gateway.security;
+
+import com.example.security.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Tokens already verified at the edge, keyed by {@link com.example.security.TokenDigest} of the raw token.
+ * Bounded in size, and an entry never outlives the token it describes.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${gateway.jwt.cache.maximum-size:100000}") long maximumSize,
+                              @Value("${gateway.jwt.cache.max-ttl:10m}") Duration maxTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        Duration untilExpiry = Duration.between(Instant.now(), token.expiresAt());
+                        return Math.max(0, Math.min(untilExpiry.toNanos(), maxTtl.toNanos()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.verified-tokens");
+    }
+
+    public VerifiedToken get(String digest) {
+        return cache.getIfPresent(digest);
+    }
+
+    public void put(String digest, VerifiedToken token) {
+        cache.put(digest, token);
+    }
+}
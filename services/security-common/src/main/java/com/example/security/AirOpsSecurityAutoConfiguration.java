@@ -0,0 +1,90 @@
+package com.example.security;
+
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Local JWT verification for services behind auth-service. Services that declare their own
+ * {@link SecurityFilterChain} should add the {@link LocalJwtAuthenticationFilter} bean to it.
+ */
+@AutoConfiguration(before = SecurityAutoConfiguration.class)
+@EnableConfigurationProperties(AirOpsSecurityProperties.class)
+public class AirOpsSecurityAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JwksKeyResolver jwksKeyResolver(AirOpsSecurityProperties properties) {
+        AirOpsSecurityProperties.Jwks jwks = properties.getJwks();
+        return new JwksKeyResolver(RestClient.create(), jwks.getUrl(),
+                jwks.getRefreshInterval(), jwks.getMinRefreshInterval());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtVerifier jwtVerifier(JwksKeyResolver jwksKeyResolver) {
+        return new JwtVerifier(jwksKeyResolver);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RevocationList revocationList(AirOpsSecurityProperties properties) {
+        AirOpsSecurityProperties.Revocation revocation = properties.getRevocation();
+        return new RevocationList(RestClient.create(), revocation.getUrl(), revocation.getServiceToken(),
+                revocation.getRefreshInterval(), revocation.isEnabled());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(SecurityFilterChain.class)
+    static class ServletSecurityConfiguration {
+
+        @Bean
+        public LocalJwtAuthenticationFilter localJwtAuthenticationFilter(JwtVerifier jwtVerifier,
+                                                                         RevocationList revocationList,
+                                                                         AirOpsSecurityProperties properties) {
+            return new LocalJwtAuthenticationFilter(jwtVerifier, revocationList, properties.isTrustGatewayHeaders());
+        }
+
+        // Only run inside the security filter chain, not a second time as a plain servlet filter
+        @Bean
+        public FilterRegistrationBean<LocalJwtAuthenticationFilter> localJwtAuthenticationFilterRegistration(
+                LocalJwtAuthenticationFilter filter) {
+            FilterRegistrationBean<LocalJwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+            registration.setEnabled(false);
+            return registration;
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(SecurityFilterChain.class)
+        public SecurityFilterChain airOpsSecurityFilterChain(HttpSecurity http,
+                                                             LocalJwtAuthenticationFilter filter,
+                                                             AirOpsSecurityProperties properties) throws Exception {
+            http
+                    .csrf(csrf -> csrf.disable())
+                    .authorizeHttpRequests(auth -> auth
+                            .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                            // Async dispatches complete responses (e.g. SSE streams) already authorized
+                            .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                            .requestMatchers(properties.getPublicPaths().toArray(String[]::new)).permitAll()
+                            .anyRequest().authenticated()
+                    )
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .addFilterBefore(filter, UsernamePasswordAuthenticationFilter.class);
+            return http.build();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "airops.security")
+public class AirOpsSecurityProperties {
+
+    private final Jwks jwks = new Jwks();
+    private final Revocation revocation = new Revocation();
+
+    // Accept identity headers set by the gateway instead of verifying the token again.
+    // Only enable when the service is reachable exclusively through the gateway.
+    private boolean trustGatewayHeaders = false;
+
+    // Paths left open by the default filter chain
+    private List<String> publicPaths = new ArrayList<>(List.of("/actuator/health/**", "/actuator/info", "/error"));
+
+    @Data
+    public static class Jwks {
+        private String url = "http://auth-service:8090/.well-known/jwks.json";
+        private Duration refreshInterval = Duration.ofMinutes(5);
+        // Lower bound between refreshes triggered by tokens with an unknown kid
+        private Duration minRefreshInterval = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Revocation {
+        private boolean enabled = true;
+        private String url = "http://auth-service:8090/api/v1/auth/revocations";
+        private Duration refreshInterval = Duration.ofSeconds(30);
+        // Sent as X-Service-Token; auth-service refuses the feed without it
+        private String serviceToken;
+    }
+}
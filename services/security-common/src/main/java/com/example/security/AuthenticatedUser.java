@@ -0,0 +1,14 @@
+package com.example.security;
+
+import java.security.Principal;
+
+/**
+ * Principal set in the security context for requests carrying a valid token.
+ */
+public record AuthenticatedUser(Long userId, String email, String role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.security;
+
+import java.util.List;
+
+/**
+ * Headers the gateway sets after verifying a token, so backends can skip verification.
+ * The gateway strips them from incoming requests, so clients cannot forge them.
+ */
+public final class IdentityHeaders {
+
+    public static final String USER_ID = "X-User-Id";
+    public static final String EMAIL = "X-User-Email";
+    public static final String ROLE = "X-User-Role";
+    // Comma-separated
+    public static final String AUTHORITIES = "X-User-Authorities";
+
+    public static final List<String> ALL = List.of(USER_ID, EMAIL, ROLE, AUTHORITIES);
+
+    private IdentityHeaders() {
+    }
+}
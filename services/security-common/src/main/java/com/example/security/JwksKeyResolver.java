@@ -0,0 +1,134 @@
+package com.example.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resolves the public key of a token from auth-service's JWKS.
+ * <p>
+ * Keys are refreshed in the background; a token with an unknown kid triggers an immediate
+ * refresh, at most once per {@code minRefreshInterval}, so a rotation is picked up even
+ * between scheduled refreshes without letting bad tokens hammer auth-service.
+ */
+@Slf4j
+public class JwksKeyResolver extends SigningKeyResolverAdapter implements InitializingBean, DisposableBean {
+
+    record Jwk(String kty, String kid, String n, String e) {
+    }
+
+    record JwkSet(List<Jwk> keys) {
+    }
+
+    private final RestClient restClient;
+    private final String url;
+    private final Duration refreshInterval;
+    private final long minRefreshIntervalMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jwks-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastRefresh;
+
+    public JwksKeyResolver(RestClient restClient, String url, Duration refreshInterval, Duration minRefreshInterval) {
+        this.restClient = restClient;
+        this.url = url;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshIntervalMillis = minRefreshInterval.toMillis();
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        // Tokens signed before the JWKS (HS256) carry no kid; the immutable map rejects null keys
+        if (kid == null || kid.isBlank()) {
+            throw new JwtException("Missing kid");
+        }
+        PublicKey key = keys.get(kid);
+        if (key == null && System.currentTimeMillis() - lastRefresh >= minRefreshIntervalMillis) {
+            refresh();
+            key = keys.get(kid);
+        }
+        if (key == null) {
+            throw new JwtException("Unknown signing key: " + kid);
+        }
+        return key;
+    }
+
+    // A lock rather than synchronized: the HTTP call below would pin a virtual thread's carrier
+    void refresh() {
+        refreshLock.lock();
+        try {
+            if (System.currentTimeMillis() - lastRefresh < minRefreshIntervalMillis) {
+                return;
+            }
+            lastRefresh = System.currentTimeMillis();
+            JwkSet jwkSet = restClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .body(JwkSet.class);
+            if (jwkSet == null || jwkSet.keys() == null) {
+                return;
+            }
+            Map<String, PublicKey> loaded = new HashMap<>();
+            for (Jwk jwk : jwkSet.keys()) {
+                if ("RSA".equals(jwk.kty())) {
+                    loaded.put(jwk.kid(), toPublicKey(jwk));
+                }
+            }
+            keys = Map.copyOf(loaded);
+        } catch (Exception e) {
+            log.warn("Could not refresh JWKS from {}: {}", url, e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private static PublicKey toPublicKey(Jwk jwk) throws GeneralSecurityException {
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                new BigInteger(1, decoder.decode(jwk.n())),
+                new BigInteger(1, decoder.decode(jwk.e()))
+        ));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler.scheduleWithFixedDelay(this::scheduledRefresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduledRefresh() {
+        lastRefresh = 0;
+        refresh();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolver;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies tokens issued by auth-service locally, without a network call.
+ * The parser is built once and is safe to share between request threads.
+ */
+public class JwtVerifier {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final JwtParser jwtParser;
+    // Authority names are a small fixed set, so the same instances are reused for every request
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    public JwtVerifier(SigningKeyResolver keyResolver) {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyResolver)
+                .build();
+    }
+
+    /**
+     * @throws JwtException if the signature is invalid or the token has expired
+     */
+    public VerifiedToken verify(String jwt) {
+        Claims claims = jwtParser.parseClaimsJws(jwt).getBody();
+        List<GrantedAuthority> grantedAuthorities = toAuthorities(claims.get("authorities"));
+        String role = grantedAuthorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .map(authority -> authority.substring(ROLE_PREFIX.length()))
+                .findFirst()
+                .orElse(null);
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                role,
+                claims.getExpiration().toInstant(),
+                grantedAuthorities
+        );
+    }
+
+    private List<GrantedAuthority> toAuthorities(Object claim) {
+        if (!(claim instanceof List<?> names)) {
+            return List.of();
+        }
+        return names.stream()
+                .map(String::valueOf)
+                .map(name -> authorities.computeIfAbsent(name, SimpleGrantedAuthority::new))
+                .toList();
+    }
+}
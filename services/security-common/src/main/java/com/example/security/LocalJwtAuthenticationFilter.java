@@ -0,0 +1,95 @@
+package com.example.security;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Authenticates requests from the bearer token alone: signature and expiry are checked
+ * locally and the jti against the synced {@link RevocationList}, so auth-service is not
+ * called on the request path.
+ */
+@RequiredArgsConstructor
+public class LocalJwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final JwtVerifier jwtVerifier;
+    private final RevocationList revocationList;
+    private final boolean trustGatewayHeaders;
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (trustGatewayHeaders && request.getHeader(IdentityHeaders.EMAIL) != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            authenticateFromGatewayHeaders(request);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final VerifiedToken token;
+        try {
+            token = jwtVerifier.verify(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Tokens without a jti cannot be checked for revocation and are refused, as in auth-service
+        if (token.jti() != null && !revocationList.isRevoked(token.jti())) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    new AuthenticatedUser(token.userId(), token.email(), token.role()),
+                    null,
+                    token.authorities()
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticateFromGatewayHeaders(HttpServletRequest request) {
+        String userId = request.getHeader(IdentityHeaders.USER_ID);
+        String authorityHeader = request.getHeader(IdentityHeaders.AUTHORITIES);
+        List<GrantedAuthority> grantedAuthorities = authorityHeader == null || authorityHeader.isBlank()
+                ? List.of()
+                : Arrays.stream(authorityHeader.split(","))
+                        .map(name -> authorities.computeIfAbsent(name, SimpleGrantedAuthority::new))
+                        .toList();
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(
+                        userId != null && !userId.isBlank() ? Long.valueOf(userId) : null,
+                        request.getHeader(IdentityHeaders.EMAIL),
+                        request.getHeader(IdentityHeaders.ROLE)),
+                null,
+                grantedAuthorities
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local copy of the revoked token ids (jti → expiry in epoch millis) published by auth-service.
+ * <p>
+ * The whole list is replaced on every refresh; it only holds revoked tokens that have not
+ * expired yet, so it stays small. If a refresh fails the previous copy is kept.
+ */
+@Slf4j
+public class RevocationList implements InitializingBean, DisposableBean {
+
+    private static final ParameterizedTypeReference<Map<String, Long>> REVOCATIONS =
+            new ParameterizedTypeReference<>() {
+            };
+
+    public static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
+    private final RestClient restClient;
+    private final String url;
+    private final String serviceToken;
+    private final Duration refreshInterval;
+    private final boolean enabled;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "revocation-list-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Map<String, Long> revoked = Map.of();
+
+    public RevocationList(RestClient restClient, String url, String serviceToken,
+                          Duration refreshInterval, boolean enabled) {
+        this.restClient = restClient;
+        this.url = url;
+        this.serviceToken = serviceToken;
+        this.refreshInterval = refreshInterval;
+        this.enabled = enabled;
+    }
+
+    public boolean isRevoked(String jti) {
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    void refresh() {
+        try {
+            Map<String, Long> latest = restClient.get()
+                    .uri(url)
+                    .headers(headers -> {
+                        if (serviceToken != null && !serviceToken.isBlank()) {
+                            headers.set(SERVICE_TOKEN_HEADER, serviceToken);
+                        }
+                    })
+                    .retrieve()
+                    .body(REVOCATIONS);
+            revoked = latest != null ? Map.copyOf(latest) : Map.of();
+        } catch (Exception e) {
+            log.warn("Could not refresh revocation list from {}: {}", url, e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            log.info("Revocation list sync disabled, revoked tokens are accepted until they expire");
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a token whose signature and expiry were checked by {@link JwtVerifier}.
+ */
+public record VerifiedToken(String jti,
+                            String email,
+                            Long userId,
+                            String role,
+                            Instant expiresAt,
+                            List<GrantedAuthority> authorities) {
+}